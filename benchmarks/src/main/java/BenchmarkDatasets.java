@@ -0,0 +1,124 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+
+/**
+ * Generates and installs the persons.txt datasets used by the benchmarks.
+ * Each dataset size is generated once into the data directory and copied over the
+ * working files (the ones Person reads through -Dperson.file / -Ddemerit.file) at the start of a trial.
+ */
+public final class BenchmarkDatasets {
+    static final Path DATA_DIR = Paths.get(System.getProperty("bench.data.dir", "target/bench-data"));
+    static final Path PERSON_FILE = Paths.get(System.getProperty("person.file", "persons.txt"));
+    static final Path DEMERIT_FILE = Paths.get(System.getProperty("demerit.file", "demerit_points.txt"));
+
+    private static final String ID_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    private BenchmarkDatasets() {
+    }
+
+    /**
+     * Copies the dataset with the given number of persons over the working persons file
+     * and empties the working demerit points file
+     * @param persons number of persons in the dataset
+     * @throws IOException if the dataset could not be generated or copied
+     */
+    public static void install(int persons) throws IOException {
+        Path base = generate(persons);
+        if (PERSON_FILE.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(PERSON_FILE.toAbsolutePath().getParent());
+        }
+        Files.copy(base, PERSON_FILE, StandardCopyOption.REPLACE_EXISTING);
+        Files.write(DEMERIT_FILE, new byte[0]);
+    }
+
+    /**
+     * Generates (once) a persons file with the given number of valid person records
+     * @param persons number of persons
+     * @return path of the generated file
+     * @throws IOException if the file could not be written
+     */
+    public static Path generate(int persons) throws IOException {
+        Files.createDirectories(DATA_DIR);
+        Path file = DATA_DIR.resolve("persons-" + persons + ".txt");
+        if (Files.exists(file)) {
+            return file;
+        }
+        Path temp = DATA_DIR.resolve("persons-" + persons + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp)) {
+            for (long i = 0; i < persons; i++) {
+                Person person = personAt(i);
+                writer.write(String.join("|", person.getPersonID(), person.getFirstName(), person.getLastName(),
+                    person.getAddress(), person.getBirthdate(), "false"));
+                writer.write('\n');
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    /**
+     * Builds the person stored at the given position of every dataset
+     * @param index position in the dataset
+     * @return a Person with the same details as the generated record
+     */
+    public static Person personAt(long index) {
+        int day = (int) (index % 28) + 1;
+        int month = (int) (index % 12) + 1;
+        int year = 1950 + (int) (index % 50);
+        String birthdate = String.format("%02d-%02d-%04d", day, month, year);
+        String address = (index % 999 + 1) + "|Street " + (index % 500) + "|Suburb" + (index % 300) + "|Victoria|Australia";
+        return new Person(personId(index), "First" + index, "Last" + (index % 1000), address, birthdate);
+    }
+
+    /**
+     * Builds a valid, unique person ID for an index: two digits 2-9, two special
+     * characters and four base-36 characters, then two uppercase letters
+     * @param index the index to encode
+     * @return the person ID
+     */
+    public static String personId(long index) {
+        char[] id = new char[10];
+        id[0] = (char) ('2' + index % 8);
+        index /= 8;
+        id[1] = (char) ('2' + index % 8);
+        index /= 8;
+        id[2] = '#';
+        id[3] = '$';
+        for (int i = 4; i < 8; i++) {
+            id[i] = ID_CHARS.charAt((int) (index % ID_CHARS.length()));
+            index /= ID_CHARS.length();
+        }
+        id[8] = (char) ('A' + index % 26);
+        index /= 26;
+        id[9] = (char) ('A' + index % 26);
+        return new String(id);
+    }
+
+    /**
+     * Writes a demerit history of the given depth for a person, both to the working demerit file
+     * and to the Person's in-memory history, without going through addDemeritPoints
+     * @param person the person
+     * @param depth number of prior offenses
+     * @throws IOException if the demerit file could not be written
+     */
+    public static void addHistory(Person person, int depth) throws IOException {
+        if (depth == 0) {
+            return;
+        }
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            LocalDate offense = start.plusDays(i * 7L);
+            person.getDemeritHistory().add(offense, 1);
+            lines.append(person.getPersonID()).append('|')
+                .append(String.format("%02d-%02d-%04d", offense.getDayOfMonth(), offense.getMonthValue(), offense.getYear()))
+                .append("|1|false\n");
+        }
+        Files.writeString(DEMERIT_FILE, lines, java.nio.file.StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,57 @@
+import java.io.IOException;
+
+import au.edu.rmit.sct.bench.PersonDriver;
+
+/**
+ * PersonDriver over the real Person class, operating on a sample of the installed dataset
+ */
+public class DefaultPersonDriver implements PersonDriver {
+    private Person[] registered;
+    private Person[] unregistered;
+
+    @Override
+    public void install(int persons, int sampleSize) throws IOException {
+        BenchmarkDatasets.install(persons);
+        registered = new Person[sampleSize];
+        unregistered = new Person[sampleSize];
+        long stride = Math.max(1, persons / sampleSize);
+        for (int i = 0; i < sampleSize; i++) {
+            registered[i] = BenchmarkDatasets.personAt((i * stride) % persons);
+            // Indexes past the end of the dataset are valid IDs that are not registered
+            unregistered[i] = BenchmarkDatasets.personAt(persons + (long) i);
+        }
+    }
+
+    @Override
+    public void addHistory(int depth) throws IOException {
+        for (Person person : registered) {
+            BenchmarkDatasets.addHistory(person, depth);
+        }
+    }
+
+    @Override
+    public boolean personExists(int sample, boolean isRegistered) {
+        Person person = isRegistered ? registered[sample] : unregistered[sample];
+        return person.personExists(person.getPersonID());
+    }
+
+    @Override
+    public boolean addPerson(long index) {
+        return BenchmarkDatasets.personAt(index).addPerson(BenchmarkDatasets.PERSON_FILE.toString());
+    }
+
+    @Override
+    public boolean updatePersonalDetails(int sample) {
+        Person person = registered[sample];
+        // Toggle a trailing "x" on the first name so every call is a real change
+        String firstName = person.getFirstName();
+        String newFirstName = firstName.endsWith("x") ? firstName.substring(0, firstName.length() - 1) : firstName + "x";
+        return person.updatePersonalDetails(person.getPersonID(), person.getPersonID(), newFirstName,
+            person.getLastName(), person.getAddress(), person.getBirthdate());
+    }
+
+    @Override
+    public String addDemeritPoints(int sample, String offenseDate) {
+        return registered[sample].addDemeritPoints(offenseDate, 1);
+    }
+}
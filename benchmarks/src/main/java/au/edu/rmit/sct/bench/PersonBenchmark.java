@@ -0,0 +1,104 @@
+package au.edu.rmit.sct.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the Person operations against persons.txt datasets of increasing size.
+ * Run through PersonBenchmarkRunner (or benchmarks.jar) so the GC profiler reports the
+ * allocation rate per operation alongside the throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PersonBenchmark {
+    // Number of existing persons the lookups and updates rotate through (power of two)
+    private static final int SAMPLE_SIZE = 1024;
+
+    /**
+     * The installed dataset and the sample of persons the operations rotate through
+     */
+    @State(Scope.Benchmark)
+    public static class Dataset {
+        @Param({"10000", "1000000", "10000000"})
+        public int persons;
+
+        PersonDriver driver;
+        long nextNewIndex;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            driver = PersonDriver.load();
+            driver.install(persons, SAMPLE_SIZE);
+            // New persons get indexes past the dataset and the unregistered sample
+            nextNewIndex = persons + SAMPLE_SIZE;
+        }
+
+        int next() {
+            cursor = (cursor + 1) & (SAMPLE_SIZE - 1);
+            return cursor;
+        }
+    }
+
+    /**
+     * Demerit history depth of the sampled persons, for addDemeritPoints
+     */
+    @State(Scope.Benchmark)
+    public static class History {
+        @Param({"0", "10", "100"})
+        public int historyDepth;
+
+        int offenseDay;
+
+        @Setup(Level.Trial)
+        public void setUp(Dataset dataset) throws IOException {
+            dataset.driver.addHistory(historyDepth);
+        }
+
+        String nextOffenseDate() {
+            offenseDay = (offenseDay + 1) % 28;
+            return String.format("%02d-06-2024", offenseDay + 1);
+        }
+    }
+
+    @Benchmark
+    public boolean personExistsHit(Dataset dataset) {
+        return dataset.driver.personExists(dataset.next(), true);
+    }
+
+    @Benchmark
+    public boolean personExistsMiss(Dataset dataset) {
+        return dataset.driver.personExists(dataset.next(), false);
+    }
+
+    @Benchmark
+    public boolean addPerson(Dataset dataset) {
+        return dataset.driver.addPerson(dataset.nextNewIndex++);
+    }
+
+    @Benchmark
+    public boolean updatePersonalDetails(Dataset dataset) {
+        return dataset.driver.updatePersonalDetails(dataset.next());
+    }
+
+    @Benchmark
+    public String addDemeritPoints(Dataset dataset, History history) {
+        return dataset.driver.addDemeritPoints(dataset.next(), history.nextOffenseDate());
+    }
+}
@@ -0,0 +1,30 @@
+package au.edu.rmit.sct.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the Person benchmarks with the GC profiler (allocation rate per operation) and
+ * points Person at working files under target/bench-data instead of ./persons.txt.
+ * Any normal JMH command line options can be passed, e.g. "-p persons=10000".
+ */
+public class PersonBenchmarkRunner {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        String dataDir = System.getProperty("bench.data.dir", "target/bench-data");
+        Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .include(PersonBenchmark.class.getName())
+            .addProfiler(GCProfiler.class)
+            .jvmArgsAppend(
+                "-Dbench.data.dir=" + dataDir,
+                "-Dperson.file=" + dataDir + "/persons.txt",
+                "-Ddemerit.file=" + dataDir + "/demerit_points.txt")
+            .build();
+        new Runner(options).run();
+    }
+}
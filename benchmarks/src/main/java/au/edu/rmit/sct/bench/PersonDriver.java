@@ -0,0 +1,40 @@
+package au.edu.rmit.sct.bench;
+
+import java.io.IOException;
+
+/**
+ * The Person operations under benchmark.
+ * JMH benchmarks have to live in a named package, and Person lives in the default package
+ * (which named packages cannot import), so the benchmarks call Person through this interface.
+ * The implementation is the default-package class {@code DefaultPersonDriver}.
+ */
+public interface PersonDriver {
+
+    /**
+     * Installs the dataset with the given number of persons and picks a sample of
+     * registered and unregistered persons to operate on
+     */
+    void install(int persons, int sampleSize) throws IOException;
+
+    /** Gives every sampled person a demerit history of the given depth */
+    void addHistory(int depth) throws IOException;
+
+    boolean personExists(int sample, boolean registered);
+
+    boolean addPerson(long index);
+
+    boolean updatePersonalDetails(int sample);
+
+    String addDemeritPoints(int sample, String offenseDate);
+
+    /**
+     * Loads the default-package implementation
+     */
+    static PersonDriver load() {
+        try {
+            return (PersonDriver) Class.forName("DefaultPersonDriver").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("DefaultPersonDriver is not on the classpath", e);
+        }
+    }
+}
@@ -0,0 +1,375 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary, memory-mapped alternative to the pipe-delimited persons file.
+ * Every record starts with a fixed-width ID slot and a flags byte (suspension and deleted bits),
+ * followed by the name, address and birthdate fields, each prefixed with its length.
+ * Opening the store only walks the record headers to build the ID index, lookups decode just
+ * the requested record, and suspension changes flip one byte in place instead of rewriting the file.
+ * Other changes append a new version of the record and mark the old one deleted.
+ *
+ * File layout (big-endian):
+ * <pre>
+ * header: magic (4) | version (2) | reserved (2) | end of last record (8)
+ * record: ID length (1) | ID bytes, zero padded (15) | flags (1) | body length (4) | body
+ * body:   8 x (field length (2) | UTF-8 bytes) - firstName, lastName, street number, street,
+ *         city, state, country, birthdate
+ * </pre>
+ *
+ * The store is standalone: the Person operations and PersonRegistry keep working on the text file, and
+ * a store is not kept in step with it. Build one from a persons file for lookup-heavy or read-only use
+ * (e.g. an exported snapshot) and convert it back when the text file should take its changes:
+ * <pre>
+ * java BinaryPersonStore toBinary persons.txt persons.bin
+ * java BinaryPersonStore toText persons.bin persons.txt
+ * </pre>
+ */
+public class BinaryPersonStore implements Closeable {
+    private static final int MAGIC = 0x50525331; // "PRS1"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int END_OFFSET = 8;
+
+    static final int ID_SLOT = 16;
+    private static final int FLAGS_OFFSET = ID_SLOT;
+    private static final int BODY_LENGTH_OFFSET = ID_SLOT + 1;
+    private static final int RECORD_HEADER_SIZE = ID_SLOT + 1 + 4;
+    private static final int BODY_FIELDS = 8;
+
+    private static final byte SUSPENDED = 0x01;
+    private static final byte DELETED = 0x02;
+
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long end;
+    private final Map<String, Integer> offsets = new HashMap<>();
+
+    private BinaryPersonStore(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens (or creates) a binary person store and indexes its records
+     * @param path the store file
+     * @return the open store
+     * @throws IOException if the file could not be opened or is not a person store
+     */
+    public static BinaryPersonStore open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        BinaryPersonStore store = new BinaryPersonStore(channel);
+        try {
+            store.load();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            map(INITIAL_CAPACITY);
+            buffer.putInt(0, MAGIC);
+            buffer.putShort(4, VERSION);
+            end = HEADER_SIZE;
+            buffer.putLong(END_OFFSET, end);
+            return;
+        }
+        if (size < HEADER_SIZE) {
+            throw new IOException("Not a person store (file too short)");
+        }
+        map(size);
+        if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+            throw new IOException("Not a person store (bad header)");
+        }
+        end = buffer.getLong(END_OFFSET);
+        if (end < HEADER_SIZE || end > size) {
+            throw new IOException("Corrupt person store (end " + end + " outside file of " + size + " bytes)");
+        }
+
+        // Only the record headers are read here; bodies are skipped by their length
+        long offset = HEADER_SIZE;
+        while (offset < end) {
+            int position = (int) offset;
+            if ((buffer.get(position + FLAGS_OFFSET) & DELETED) == 0) {
+                // Two live records for one ID mean a put was interrupted after its end was published
+                Integer earlier = offsets.put(readID(position), position);
+                if (earlier != null) {
+                    markDeleted(earlier);
+                }
+            }
+            offset += RECORD_HEADER_SIZE + buffer.getInt(position + BODY_LENGTH_OFFSET);
+        }
+        PersonMetrics.bytesRead(end);
+    }
+
+    /**
+     * @param personID the ID to look up
+     * @return true if a live record with the ID is stored
+     */
+    public synchronized boolean contains(String personID) {
+        return offsets.containsKey(personID);
+    }
+
+    /**
+     * @return number of live records
+     */
+    public synchronized int size() {
+        return offsets.size();
+    }
+
+    /**
+     * @return IDs of all live records
+     */
+    public synchronized List<String> ids() {
+        return new ArrayList<>(offsets.keySet());
+    }
+
+    /**
+     * Decodes one record back to the persons.txt line format
+     * @param personID the ID to look up
+     * @return the record line, or null if the ID is not stored
+     */
+    public synchronized String getRecord(String personID) {
+        Integer offset = offsets.get(personID);
+        return offset == null ? null : decode(offset);
+    }
+
+    /**
+     * Reads the suspension bit of a record without decoding the record
+     * @param personID the ID to look up
+     * @return the suspension status, or null if the ID is not stored
+     */
+    public synchronized Boolean isSuspended(String personID) {
+        Integer offset = offsets.get(personID);
+        if (offset == null) {
+            return null;
+        }
+        return (buffer.get(offset + FLAGS_OFFSET) & SUSPENDED) != 0;
+    }
+
+    /**
+     * Sets the suspension bit of a record in place
+     * @param personID the ID to update
+     * @param suspended the new suspension status
+     * @return true if the record exists and was updated
+     */
+    public synchronized boolean setSuspended(String personID, boolean suspended) {
+        Integer offset = offsets.get(personID);
+        if (offset == null) {
+            return false;
+        }
+        byte flags = buffer.get(offset + FLAGS_OFFSET);
+        buffer.put(offset + FLAGS_OFFSET, (byte) (suspended ? flags | SUSPENDED : flags & ~SUSPENDED));
+        PersonMetrics.bytesWritten(1);
+        return true;
+    }
+
+    /**
+     * Stores a record given in the persons.txt line format (isSuspended field optional).
+     * A record with an ID that is already stored replaces the earlier version.
+     * @param line the record line
+     * @throws IllegalArgumentException if the line does not have the persons.txt fields
+     *                                  or the ID does not fit the ID slot
+     * @throws IOException if the store could not grow
+     */
+    public synchronized void put(String line) throws IOException {
+        String[] parts = line.split("\\|", -1);
+        if (parts.length != BODY_FIELDS + 1 && parts.length != BODY_FIELDS + 2) {
+            throw new IllegalArgumentException("Expected " + (BODY_FIELDS + 2) + " fields but found " + parts.length);
+        }
+        byte[] id = parts[0].getBytes(StandardCharsets.UTF_8);
+        if (id.length == 0 || id.length >= ID_SLOT) {
+            throw new IllegalArgumentException("personID must be 1-" + (ID_SLOT - 1) + " bytes: " + parts[0]);
+        }
+        byte[][] fields = new byte[BODY_FIELDS][];
+        int bodyLength = 0;
+        for (int i = 0; i < BODY_FIELDS; i++) {
+            fields[i] = parts[i + 1].getBytes(StandardCharsets.UTF_8);
+            if (fields[i].length > 0xFFFF) {
+                throw new IllegalArgumentException("Field " + (i + 1) + " is longer than " + 0xFFFF + " bytes");
+            }
+            bodyLength += 2 + fields[i].length;
+        }
+        boolean suspended = parts.length == BODY_FIELDS + 2 && Boolean.parseBoolean(parts[BODY_FIELDS + 1]);
+
+        int recordSize = RECORD_HEADER_SIZE + bodyLength;
+        ensureCapacity(end + recordSize);
+        int position = (int) end;
+        buffer.put(position, (byte) id.length);
+        buffer.put(position + 1, id);
+        for (int i = 1 + id.length; i < ID_SLOT; i++) {
+            buffer.put(position + i, (byte) 0);
+        }
+        buffer.put(position + FLAGS_OFFSET, suspended ? SUSPENDED : 0);
+        buffer.putInt(position + BODY_LENGTH_OFFSET, bodyLength);
+        int fieldPosition = position + RECORD_HEADER_SIZE;
+        for (byte[] field : fields) {
+            buffer.putShort(fieldPosition, (short) field.length);
+            buffer.put(fieldPosition + 2, field);
+            fieldPosition += 2 + field.length;
+        }
+
+        // Publish the new end before the old record is deleted, so a crash mid-write leaves the new
+        // record outside the store, and a crash after it leaves both (open() keeps the later one)
+        end += recordSize;
+        buffer.putLong(END_OFFSET, end);
+        Integer previous = offsets.put(parts[0], position);
+        if (previous != null) {
+            markDeleted(previous);
+        }
+        PersonMetrics.bytesWritten(recordSize);
+    }
+
+    /**
+     * Marks a record deleted
+     * @param personID the ID to remove
+     * @return true if the record existed
+     */
+    public synchronized boolean remove(String personID) {
+        Integer offset = offsets.remove(personID);
+        if (offset == null) {
+            return false;
+        }
+        markDeleted(offset);
+        return true;
+    }
+
+    /**
+     * Flushes changes to the storage device
+     */
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * Converts between the formats: {@code java BinaryPersonStore toBinary|toText <from> <to>}
+     * @param args the direction, the file to read and the file to write
+     * @throws IOException if either file could not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 || !("toBinary".equals(args[0]) || "toText".equals(args[0]))) {
+            System.out.println("Usage: java BinaryPersonStore toBinary|toText <from> <to>");
+            return;
+        }
+        Path from = Paths.get(args[1]);
+        Path to = Paths.get(args[2]);
+        int count = "toBinary".equals(args[0]) ? convertFromText(from, to) : convertToText(from, to);
+        System.out.println("Converted " + count + " persons from " + from + " to " + to);
+    }
+
+    /**
+     * Converts a persons.txt file (including append-log tombstones) to a binary store
+     * @param textFile the persons file to read
+     * @param binaryFile the store to create; an existing file is replaced
+     * @return number of live records written
+     * @throws IOException if either file could not be read or written
+     */
+    public static int convertFromText(Path textFile, Path binaryFile) throws IOException {
+        Files.deleteIfExists(binaryFile);
+        try (BinaryPersonStore store = open(binaryFile)) {
+            for (String line : Files.readAllLines(textFile)) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.charAt(0) == '!') {
+                    store.remove(line.substring(1));
+                } else {
+                    store.put(line);
+                }
+            }
+            return store.size();
+        }
+    }
+
+    /**
+     * Converts a binary store back to the persons.txt format, live records in file order
+     * @param binaryFile the store to read
+     * @param textFile the persons file to write; an existing file is replaced
+     * @return number of records written
+     * @throws IOException if either file could not be read or written
+     */
+    public static int convertToText(Path binaryFile, Path textFile) throws IOException {
+        try (BinaryPersonStore store = open(binaryFile);
+             BufferedWriter writer = Files.newBufferedWriter(textFile)) {
+            int count = 0;
+            long offset = HEADER_SIZE;
+            while (offset < store.end) {
+                int position = (int) offset;
+                if ((store.buffer.get(position + FLAGS_OFFSET) & DELETED) == 0) {
+                    writer.write(store.decode(position));
+                    writer.newLine();
+                    count++;
+                }
+                offset += RECORD_HEADER_SIZE + store.buffer.getInt(position + BODY_LENGTH_OFFSET);
+            }
+            return count;
+        }
+    }
+
+    private void markDeleted(int offset) {
+        buffer.put(offset + FLAGS_OFFSET, (byte) (buffer.get(offset + FLAGS_OFFSET) | DELETED));
+    }
+
+    private String readID(int position) {
+        byte[] id = new byte[buffer.get(position) & 0xFF];
+        buffer.get(position + 1, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    private String decode(int position) {
+        StringBuilder line = new StringBuilder(readID(position));
+        int fieldPosition = position + RECORD_HEADER_SIZE;
+        for (int i = 0; i < BODY_FIELDS; i++) {
+            int length = buffer.getShort(fieldPosition) & 0xFFFF;
+            byte[] field = new byte[length];
+            buffer.get(fieldPosition + 2, field);
+            line.append('|').append(new String(field, StandardCharsets.UTF_8));
+            fieldPosition += 2 + length;
+        }
+        boolean suspended = (buffer.get(position + FLAGS_OFFSET) & SUSPENDED) != 0;
+        return line.append('|').append(suspended).toString();
+    }
+
+    private void ensureCapacity(long required) throws IOException {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        long capacity = buffer.capacity();
+        while (capacity < required) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("Person store cannot grow beyond " + Integer.MAX_VALUE + " bytes");
+        }
+        buffer.force();
+        map(capacity);
+    }
+
+    // Mapping past the end of the file extends the file to the mapped size
+    private void map(long size) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+}
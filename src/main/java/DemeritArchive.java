@@ -0,0 +1,316 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold tier for the demerit points file.
+ * Offenses on or before the date two years before the reference date can no longer count towards a
+ * suspension, so {@link #archive(LocalDate)} moves them out of the hot demerit file into gzip-compressed
+ * segments partitioned by offense year ({@code <file>.archive/demerit-<year>.txt.gz}).
+ * Scans of the hot file (suspension checks, recomputation, history hydration) then only read offenses
+ * that still matter, while {@link #query} reads the archived ones on demand, touching only the years asked for.
+ * The job can run periodically with {@link #start(long, TimeUnit)}.
+ *
+ * A run writes the new hot file to a temporary file, records each segment's length in a pending file,
+ * appends to the segments and then swaps in the hot file, forcing every step to disk. If a run is cut
+ * short before the swap, the next archive or query truncates the segments back to the recorded lengths,
+ * so the offenses still in the hot file are archived once, not twice.
+ */
+public class DemeritArchive {
+    private static final String SEGMENT_PREFIX = "demerit-";
+    private static final String SEGMENT_SUFFIX = ".txt.gz";
+    private static final String PENDING = "pending";
+
+    // One archive per demerit file (keyed by absolute path)
+    private static final Map<String, DemeritArchive> ARCHIVES = new HashMap<>();
+    private static final ScheduledExecutorService ARCHIVER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "demerit-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path file;
+    private final Path directory;
+    private ScheduledFuture<?> job;
+    // Test hook: runs after the segments are written and before the hot file is replaced
+    volatile Runnable beforeReplace;
+
+    DemeritArchive(Path file) {
+        this.file = file;
+        this.directory = file.resolveSibling(file.getFileName() + ".archive");
+    }
+
+    /**
+     * Returns the shared archive for the given demerit points file
+     * @param fileName the demerit points file name
+     * @return the archive for that file
+     */
+    public static synchronized DemeritArchive forFile(String fileName) {
+        Path path = Paths.get(fileName).toAbsolutePath();
+        return ARCHIVES.computeIfAbsent(path.toString(), k -> new DemeritArchive(path));
+    }
+
+    /**
+     * Moves offenses that fell out of the two-year window before the reference date into the archive.
+     * Appends to the demerit file wait while the hot file is replaced.
+     * @param asOf the reference date (usually today)
+     * @return number of offenses archived
+     * @throws IOException if the hot file or an archive segment could not be read or written
+     */
+    public synchronized int archive(LocalDate asOf) throws IOException {
+        LocalDate cutoff = asOf.minusYears(2);
+        DemeritJournal journal = DemeritJournal.forFile(file.toString());
+        int archived = journal.exclusive(() -> {
+            recover();
+            if (!Files.exists(file)) {
+                return 0;
+            }
+            List<String> hot = new ArrayList<>();
+            TreeMap<Integer, List<String>> aged = new TreeMap<>();
+            try (BufferedReader reader = Files.newBufferedReader(file)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    PersonMetrics.linesScanned(1);
+                    LocalDate offense = offenseDate(line);
+                    // Malformed lines stay in the hot file untouched
+                    if (offense != null && !offense.isAfter(cutoff)) {
+                        aged.computeIfAbsent(offense.getYear(), y -> new ArrayList<>()).add(line);
+                    } else {
+                        hot.add(line);
+                    }
+                }
+            }
+            PersonMetrics.bytesRead(Files.size(file));
+            if (aged.isEmpty()) {
+                return 0;
+            }
+
+            // Archive first, then replace the hot file. The pending file marks the run as unfinished
+            // until the hot file is replaced, so recover() can undo segment appends a crash left behind
+            Path temp = tempFile();
+            Files.write(temp, hot);
+            force(temp);
+            Files.createDirectories(directory);
+            List<String> lengths = new ArrayList<>();
+            for (int year : aged.keySet()) {
+                Path segment = segment(year);
+                lengths.add(year + "|" + (Files.exists(segment) ? Files.size(segment) : 0));
+            }
+            Path pending = directory.resolve(PENDING);
+            Path pendingTemp = directory.resolve(PENDING + ".tmp");
+            Files.write(pendingTemp, lengths);
+            force(pendingTemp);
+            Files.move(pendingTemp, pending, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            forceDirectory(directory);
+
+            int count = 0;
+            for (Map.Entry<Integer, List<String>> partition : aged.entrySet()) {
+                appendSegment(partition.getKey(), partition.getValue());
+                count += partition.getValue().size();
+            }
+            forceDirectory(directory);
+            Runnable hook = beforeReplace;
+            if (hook != null) {
+                hook.run();
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            forceDirectory(file.getParent());
+            Files.delete(pending);
+            return count;
+        });
+        if (archived > 0) {
+            DemeritIndex.forFile(file.toString()).invalidate();
+        }
+        return archived;
+    }
+
+    /**
+     * Reads archived offenses with an offense date within the given range
+     * @param personID the person to read, or null for everyone
+     * @param from first offense date to include
+     * @param to last offense date to include
+     * @return matching archive lines (personID|offenseDate|points|isSuspended), oldest year first
+     * @throws IOException if a segment could not be read
+     */
+    public synchronized List<String> query(String personID, LocalDate from, LocalDate to) throws IOException {
+        List<String> matches = new ArrayList<>();
+        String prefix = personID == null ? null : personID + "|";
+        for (int year : years()) {
+            if (year < from.getYear() || year > to.getYear()) {
+                continue;
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(segment(year))), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    PersonMetrics.linesScanned(1);
+                    if (prefix != null && !line.startsWith(prefix)) {
+                        continue;
+                    }
+                    LocalDate offense = offenseDate(line);
+                    if (offense != null && !offense.isBefore(from) && !offense.isAfter(to)) {
+                        matches.add(line);
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return the offense years that have an archive segment, ascending
+     * @throws IOException if the archive directory could not be listed
+     */
+    public synchronized List<Integer> years() throws IOException {
+        TreeSet<Integer> years = new TreeSet<>();
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        recover();
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path segment : segments) {
+                String name = segment.getFileName().toString();
+                try {
+                    years.add(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        return new ArrayList<>(years);
+    }
+
+    /**
+     * Runs {@link #archive(LocalDate)} against today's date at a fixed interval, replacing any earlier schedule
+     * @param period time between runs
+     * @param unit unit of the period
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        stop();
+        job = ARCHIVER.scheduleAtFixedRate(() -> {
+            try {
+                archive(LocalDate.now());
+            } catch (IOException e) {
+                System.out.println("Error archiving demerit points: " + e.getMessage());
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Stops the periodic archive job, if running
+     */
+    public synchronized void stop() {
+        if (job != null) {
+            job.cancel(false);
+            job = null;
+        }
+    }
+
+    // Each run adds a gzip member; GZIPInputStream reads concatenated members back as one stream
+    private void appendSegment(int year, List<String> lines) throws IOException {
+        Path segment = segment(year);
+        // Only this run's gzip member counts as written, not the segment's earlier members
+        long before = Files.exists(segment) ? Files.size(segment) : 0;
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                Files.newOutputStream(segment, StandardOpenOption.CREATE, StandardOpenOption.APPEND)), StandardCharsets.UTF_8))) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        force(segment);
+        PersonMetrics.bytesWritten(Files.size(segment) - before);
+    }
+
+    /**
+     * Undoes a run that stopped before replacing the hot file: its temporary hot file is still there,
+     * so the segments are cut back to the lengths recorded before the run. If the hot file was replaced
+     * the run is complete and only the pending file is left to remove.
+     */
+    private void recover() throws IOException {
+        Path pending = directory.resolve(PENDING);
+        if (!Files.exists(pending)) {
+            return;
+        }
+        Path temp = tempFile();
+        if (Files.exists(temp)) {
+            for (String line : Files.readAllLines(pending)) {
+                int bar = line.indexOf('|');
+                Path segment = segment(Integer.parseInt(line.substring(0, bar)));
+                long length = Long.parseLong(line.substring(bar + 1));
+                if (length == 0) {
+                    Files.deleteIfExists(segment);
+                } else if (Files.exists(segment)) {
+                    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                        channel.truncate(length);
+                        channel.force(true);
+                    }
+                }
+            }
+            Files.delete(temp);
+        }
+        Files.delete(pending);
+        forceDirectory(directory);
+    }
+
+    private Path tempFile() {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    private static void force(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    // Makes renames and new files in the directory durable; not every platform can open a directory
+    private static void forceDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Best effort
+        }
+    }
+
+    private Path segment(int year) {
+        return directory.resolve(SEGMENT_PREFIX + year + SEGMENT_SUFFIX);
+    }
+
+    // Offense date of a line (personID|offenseDate|points|isSuspended), or null if it cannot be parsed
+    private static LocalDate offenseDate(String line) {
+        int start = line.indexOf('|');
+        int end = start < 0 ? -1 : line.indexOf('|', start + 1);
+        if (end < 0) {
+            return null;
+        }
+        try {
+            return Person.parseDate(line.substring(start + 1, end));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
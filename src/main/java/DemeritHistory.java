@@ -0,0 +1,153 @@
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Offense history of one person, kept sorted by offense day (epoch day) with running point totals.
+ * The points inside any date window are then two binary searches and a subtraction,
+ * no matter how long the history is. Offenses on the same day are kept as separate entries.
+ */
+public class DemeritHistory {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] days;        // offense days (epoch day), sorted ascending
+    private int[] points;      // points for the offense at the same index
+    private long[] prefixSums; // prefixSums[i] = total points of offenses 0..i-1
+    private int size;
+
+    public DemeritHistory() {
+        this.days = new int[INITIAL_CAPACITY];
+        this.points = new int[INITIAL_CAPACITY];
+        this.prefixSums = new long[INITIAL_CAPACITY + 1];
+        this.size = 0;
+    }
+
+    /**
+     * Records an offense. Offenses usually arrive in date order, which makes this O(1) amortized;
+     * an older offense costs a shift of the later entries.
+     * @param offenseDate the offense date
+     * @param offensePoints the demerit points for the offense
+     */
+    public void add(LocalDate offenseDate, int offensePoints) {
+        add((int) offenseDate.toEpochDay(), offensePoints);
+    }
+
+    /**
+     * Records an offense
+     * @param epochDay the offense date as an epoch day
+     * @param offensePoints the demerit points for the offense
+     */
+    public void add(int epochDay, int offensePoints) {
+        if (size == days.length) {
+            int capacity = days.length * 2;
+            days = Arrays.copyOf(days, capacity);
+            points = Arrays.copyOf(points, capacity);
+            prefixSums = Arrays.copyOf(prefixSums, capacity + 1);
+        }
+        // Insert after any offense on the same day so nothing is overwritten
+        int index = upperBound(epochDay);
+        int moved = size - index;
+        if (moved > 0) {
+            System.arraycopy(days, index, days, index + 1, moved);
+            System.arraycopy(points, index, points, index + 1, moved);
+        }
+        days[index] = epochDay;
+        points[index] = offensePoints;
+        size++;
+        for (int i = index; i < size; i++) {
+            prefixSums[i + 1] = prefixSums[i] + points[i];
+        }
+    }
+
+    /**
+     * Total points of offenses after fromExclusive and up to and including toInclusive
+     * @param fromExclusive start of the window (not included)
+     * @param toInclusive end of the window (included)
+     * @return total points within the window
+     */
+    public long pointsBetween(LocalDate fromExclusive, LocalDate toInclusive) {
+        return pointsBetween((int) fromExclusive.toEpochDay(), (int) toInclusive.toEpochDay());
+    }
+
+    /**
+     * Total points of offenses with fromExclusive &lt; day &lt;= toInclusive (epoch days)
+     */
+    public long pointsBetween(int fromExclusive, int toInclusive) {
+        if (toInclusive <= fromExclusive) {
+            return 0;
+        }
+        return prefixSums[upperBound(toInclusive)] - prefixSums[upperBound(fromExclusive)];
+    }
+
+    /**
+     * Total points within two years up to and including the given date, matching the
+     * suspension rule (offense after the date two years earlier and not after the date itself)
+     * @param date the reference date
+     * @return total points in the two-year window
+     */
+    public long pointsInTwoYears(LocalDate date) {
+        return pointsBetween(date.minusYears(2), date);
+    }
+
+    /**
+     * @return an independent copy of this history
+     */
+    public DemeritHistory copy() {
+        DemeritHistory copy = new DemeritHistory();
+        copy.days = Arrays.copyOf(days, days.length);
+        copy.points = Arrays.copyOf(points, points.length);
+        copy.prefixSums = Arrays.copyOf(prefixSums, prefixSums.length);
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * @return number of recorded offenses
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return total points over the whole history
+     */
+    public long totalPoints() {
+        return prefixSums[size];
+    }
+
+    /**
+     * @param index position in date order
+     * @return the offense day (epoch day) at that position
+     */
+    public int dayAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Offense index " + index + " out of range");
+        }
+        return days[index];
+    }
+
+    /**
+     * @param index position in date order
+     * @return the points of the offense at that position
+     */
+    public int pointsAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Offense index " + index + " out of range");
+        }
+        return points[index];
+    }
+
+    // First index whose day is greater than the given day
+    private int upperBound(int day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] <= day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,341 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent index from personID to the byte offsets of that person's lines in the demerit points file,
+ * so a person's history can be loaded by reading only their own lines.
+ * The index covers the file up to a known length. Appends made through DemeritJournal are added as they
+ * are written; anything else appended to the file is picked up by scanning only the bytes past that length.
+ * A shorter file, or a line that no longer matches its ID, means the file was replaced and the index is rebuilt.
+ * The index is saved next to the demerit file as {@code <file>.idx} on shutdown and by {@link #save()}.
+ */
+public class DemeritIndex {
+    private static final int MAGIC = 0x44494458; // "DIDX"
+    private static final int VERSION = 1;
+    private static final int READ_AHEAD = 128;
+
+    // One index per demerit file (keyed by absolute path)
+    private static final Map<String, DemeritIndex> INDEXES = new HashMap<>();
+    // Every index not yet garbage collected; one shutdown hook saves them all
+    private static final Set<DemeritIndex> LIVE = Collections.newSetFromMap(new WeakHashMap<>());
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DemeritIndex::saveLive, "demerit-index-save"));
+    }
+
+    private final Path file;
+    private final Map<String, Offsets> offsets = new HashMap<>();
+    private long indexedLength;
+    private boolean loaded;
+    private boolean dirty;
+
+    // Growable list of line offsets for one person, in file order
+    private static class Offsets {
+        long[] values = new long[2];
+        int size;
+
+        void add(long offset) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = offset;
+        }
+    }
+
+    DemeritIndex(Path file) {
+        this.file = file;
+        synchronized (LIVE) {
+            LIVE.add(this);
+        }
+    }
+
+    /**
+     * Returns the shared index for the given demerit points file
+     * @param fileName the demerit points file name
+     * @return the index for that file
+     */
+    public static synchronized DemeritIndex forFile(String fileName) {
+        Path path = Paths.get(fileName).toAbsolutePath();
+        return INDEXES.computeIfAbsent(path.toString(), k -> new DemeritIndex(path));
+    }
+
+    /**
+     * Reads the demerit lines of one person
+     * @param personID the person ID
+     * @return the person's lines in file order (empty if they have none)
+     * @throws IOException if the demerit file could not be read
+     */
+    public synchronized List<String> linesFor(String personID) throws IOException {
+        ensureCurrent();
+        List<String> lines = readLines(personID);
+        if (lines == null) {
+            // A line did not belong to the person, so the file was replaced under us
+            rebuild();
+            lines = readLines(personID);
+        }
+        return lines == null ? new ArrayList<>() : lines;
+    }
+
+    /**
+     * @param personID the person ID
+     * @return number of indexed demerit lines for the person
+     * @throws IOException if the demerit file could not be read
+     */
+    public synchronized int countFor(String personID) throws IOException {
+        ensureCurrent();
+        Offsets list = offsets.get(personID);
+        return list == null ? 0 : list.size;
+    }
+
+    /**
+     * Called by DemeritJournal after it wrote lines starting at the given file offset.
+     * If the lines continue exactly where the index ends they are indexed directly,
+     * otherwise they are left for the next catch-up scan.
+     * @param startOffset file offset of the first line
+     * @param lines the lines written, in order
+     */
+    synchronized void appended(long startOffset, List<String> lines) {
+        if (!loaded || startOffset != indexedLength) {
+            return;
+        }
+        long offset = startOffset;
+        for (String line : lines) {
+            add(PersonRegistry.idOf(line), offset);
+            offset += line.getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+        indexedLength = offset;
+        dirty = true;
+    }
+
+    /**
+     * Saves the index next to the demerit file if it changed since it was loaded or saved
+     * @throws IOException if the index file could not be written
+     */
+    public synchronized void save() throws IOException {
+        if (!loaded || !dirty) {
+            return;
+        }
+        Path target = indexFile();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(indexedLength);
+            out.writeInt(offsets.size());
+            for (Map.Entry<String, Offsets> entry : offsets.entrySet()) {
+                out.writeUTF(entry.getKey());
+                Offsets list = entry.getValue();
+                out.writeInt(list.size);
+                for (int i = 0; i < list.size; i++) {
+                    out.writeLong(list.values[i]);
+                }
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        dirty = false;
+    }
+
+    /**
+     * Discards the index and scans the whole demerit file again
+     * @throws IOException if the demerit file could not be read
+     */
+    public synchronized void rebuild() throws IOException {
+        offsets.clear();
+        indexedLength = 0;
+        loaded = true;
+        dirty = true;
+        scanFrom(0);
+    }
+
+    /**
+     * Drops the index after the demerit file was rewritten; the next lookup scans the new file
+     */
+    public synchronized void invalidate() {
+        offsets.clear();
+        indexedLength = 0;
+        loaded = true;
+        dirty = true;
+    }
+
+    // Loads the saved index on first use, then indexes anything appended since
+    private void ensureCurrent() throws IOException {
+        if (!loaded) {
+            loaded = true;
+            if (!loadSaved()) {
+                offsets.clear();
+                indexedLength = 0;
+                dirty = true;
+            }
+        }
+        long length = Files.exists(file) ? Files.size(file) : 0;
+        if (length < indexedLength) {
+            rebuild();
+        } else if (length > indexedLength) {
+            scanFrom(indexedLength);
+        }
+    }
+
+    private boolean loadSaved() {
+        Path source = indexFile();
+        if (!Files.exists(source)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            indexedLength = in.readLong();
+            int persons = in.readInt();
+            for (int p = 0; p < persons; p++) {
+                String personID = in.readUTF();
+                int count = in.readInt();
+                Offsets list = new Offsets();
+                list.values = new long[Math.max(2, count)];
+                for (int i = 0; i < count; i++) {
+                    list.values[i] = in.readLong();
+                }
+                list.size = count;
+                offsets.put(personID, list);
+            }
+            PersonMetrics.bytesRead(Files.size(source));
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error loading demerit index, rebuilding: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Indexes every complete line from the given offset; a trailing partial line is left for later
+    private void scanFrom(long start) throws IOException {
+        try {
+            MappedRecordFile mapped = MappedRecordFile.open(file);
+            // Only complete lines are indexed; a line still being written is picked up by the next scan
+            long end = mapped.lastLineEnd(start, mapped.length());
+            // IDs are read in parallel chunks; offsets are then added in file order
+            List<Map.Entry<String, Long>> lines = mapped.records(start, end)
+                .map(line -> Map.entry(line.firstField(), line.start()))
+                .collect(Collectors.toList());
+            for (Map.Entry<String, Long> line : lines) {
+                if (!line.getKey().isEmpty()) {
+                    add(line.getKey(), line.getValue());
+                }
+            }
+            PersonMetrics.bytesRead(end - start);
+            PersonMetrics.linesScanned(lines.size());
+            indexedLength = end;
+            dirty = true;
+        } catch (NoSuchFileException e) {
+            indexedLength = 0;
+        }
+    }
+
+    // Reads the indexed lines of one person, or returns null if any of them belongs to someone else
+    private List<String> readLines(String personID) throws IOException {
+        Offsets list = offsets.get(personID);
+        List<String> lines = new ArrayList<>();
+        if (list == null) {
+            return lines;
+        }
+        String prefix = personID + "|";
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_AHEAD);
+            for (int i = 0; i < list.size; i++) {
+                String line = readLine(channel, buffer, list.values[i]);
+                if (line == null || !line.startsWith(prefix)) {
+                    return null;
+                }
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static String readLine(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        StringBuilder line = null;
+        long position = offset;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return line == null ? null : line.toString();
+            }
+            PersonMetrics.bytesRead(read);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    String part = new String(buffer.array(), 0, i, StandardCharsets.UTF_8);
+                    return line == null ? part : line.append(part).toString();
+                }
+            }
+            // Line longer than the read-ahead; keep reading
+            if (line == null) {
+                line = new StringBuilder();
+            }
+            line.append(new String(buffer.array(), 0, read, StandardCharsets.UTF_8));
+            position += read;
+        }
+    }
+
+    private void add(String personID, long offset) {
+        if (personID != null) {
+            offsets.computeIfAbsent(personID, k -> new Offsets()).add(offset);
+        }
+    }
+
+    private Path indexFile() {
+        return file.resolveSibling(file.getFileName() + ".idx");
+    }
+
+    // Shutdown hook: saves every live index whose demerit file's directory still exists
+    private static void saveLive() {
+        List<DemeritIndex> live;
+        synchronized (LIVE) {
+            live = new ArrayList<>(LIVE);
+        }
+        saveAll(live, ShutdownSaver.TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Saves the given indexes, skipping those still busy at the timeout
+     * @param indexes the indexes to save
+     * @param timeoutMillis how long to wait for all of them
+     * @return number of indexes skipped
+     */
+    static int saveAll(List<DemeritIndex> indexes, long timeoutMillis) {
+        List<Runnable> saves = new ArrayList<>();
+        for (DemeritIndex index : indexes) {
+            if (Files.isDirectory(index.file.toAbsolutePath().getParent())) {
+                saves.add(index::saveQuietly);
+            }
+        }
+        return ShutdownSaver.saveAll("demerit-index-save", saves, timeoutMillis);
+    }
+
+    private void saveQuietly() {
+        try {
+            save();
+        } catch (IOException e) {
+            System.out.println("Error saving demerit index: " + e.getMessage());
+        }
+    }
+}
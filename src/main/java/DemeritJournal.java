@@ -0,0 +1,336 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind journal for appends to the demerit points file.
+ * The file is kept open as a FileChannel instead of being opened and closed per offense.
+ * In {@link Durability#GROUP_COMMIT} mode appends from many callers are collected by a
+ * background writer into one write and one force; every caller returns once its batch is on disk.
+ * If the file is deleted or replaced while open, the journal reopens it before the next write.
+ *
+ * Defaults can be set with -Ddemerit.durability, -Ddemerit.groupCommitMillis and -Ddemerit.groupCommitRecords.
+ */
+public class DemeritJournal {
+    // One journal per demerit file (keyed by absolute path)
+    private static final Map<String, DemeritJournal> JOURNALS = new HashMap<>();
+
+    private final Path file;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private final Condition batchDone = lock.newCondition();
+    private final Object channelLock = new Object();
+
+    private Durability durability;
+    private long groupCommitNanos;
+    private int groupCommitRecords;
+    private Batch current;
+    private Thread writer;
+
+    private FileChannel channel;
+    private Object channelKey;
+
+    // Called by the background writer before each batch is written (tests use it to inject failures)
+    volatile Consumer<List<String>> beforeWrite = lines -> { };
+
+    // Lines waiting to be written together, and the outcome once they are
+    private static class Batch {
+        final List<String> lines = new ArrayList<>();
+        long openedAt;
+        boolean done;
+        IOException error;
+    }
+
+    private DemeritJournal(Path file) {
+        this.file = file;
+        this.durability = Durability.valueOf(System.getProperty("demerit.durability", Durability.OS_BUFFERED.name()));
+        this.groupCommitNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("demerit.groupCommitMillis", 5));
+        this.groupCommitRecords = Integer.getInteger("demerit.groupCommitRecords", 256);
+        this.current = new Batch();
+    }
+
+    /**
+     * Returns the shared journal for the given demerit points file
+     * @param fileName the demerit points file name
+     * @return the journal for that file
+     */
+    public static synchronized DemeritJournal forFile(String fileName) {
+        Path path = Paths.get(fileName).toAbsolutePath();
+        return JOURNALS.computeIfAbsent(path.toString(), k -> new DemeritJournal(path));
+    }
+
+    public Durability getDurability() {
+        lock.lock();
+        try {
+            return durability;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes the durability mode. Appends still waiting for a group commit are written first.
+     * @param durability the new durability mode
+     * @throws IOException if pending appends could not be written
+     */
+    public void setDurability(Durability durability) throws IOException {
+        flush();
+        lock.lock();
+        try {
+            this.durability = Objects.requireNonNull(durability);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets when a group commit happens: after the given time since the first waiting append,
+     * or as soon as the given number of appends are waiting
+     * @param millis maximum time an append waits for its batch
+     * @param records maximum number of appends in one batch
+     */
+    public void setGroupCommit(long millis, int records) {
+        if (millis < 0 || records < 1) {
+            throw new IllegalArgumentException("Group commit needs millis >= 0 and records >= 1");
+        }
+        lock.lock();
+        try {
+            this.groupCommitNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+            this.groupCommitRecords = records;
+            batchReady.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends one line and returns once it has reached the configured durability
+     * @param line the line to append (without line break)
+     * @throws IOException if the line could not be written
+     */
+    public void append(String line) throws IOException {
+        Batch batch;
+        boolean force;
+        lock.lock();
+        try {
+            force = durability == Durability.FLUSH_PER_CALL;
+            if (durability != Durability.GROUP_COMMIT) {
+                // Written directly by the caller
+                batch = null;
+            } else {
+                batch = current;
+                if (batch.lines.isEmpty()) {
+                    batch.openedAt = System.nanoTime();
+                }
+                batch.lines.add(line);
+                startWriterIfNeeded();
+                batchReady.signal();
+                awaitDone(batch);
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Counted against the caller's operation, even when the background writer does the write
+        PersonMetrics.bytesWritten(line.length() + 1);
+        if (batch == null) {
+            write(List.of(line), force);
+        } else if (batch.error != null) {
+            throw new IOException("Group commit failed: " + batch.error.getMessage(), batch.error);
+        }
+    }
+
+    /**
+     * Writes and forces any appends still waiting for a group commit
+     * @throws IOException if they could not be written
+     */
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            Batch batch = current;
+            if (batch.lines.isEmpty()) {
+                return;
+            }
+            // Make the writer commit now instead of waiting out the timer
+            batch.openedAt = System.nanoTime() - groupCommitNanos;
+            batchReady.signal();
+            awaitDone(batch);
+            if (batch.error != null) {
+                throw batch.error;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs an action that reads or replaces the whole demerit file (e.g. archiving).
+     * Waiting group commits are written first, and no append reaches the file until the action returns.
+     * @param action the action to run
+     * @return the action's result
+     * @throws IOException if pending appends could not be written or the action failed
+     */
+    <T> T exclusive(FileAction<T> action) throws IOException {
+        flush();
+        synchronized (channelLock) {
+            return action.run();
+        }
+    }
+
+    /**
+     * Work done by {@link #exclusive(FileAction)}
+     */
+    @FunctionalInterface
+    interface FileAction<T> {
+        T run() throws IOException;
+    }
+
+    private void awaitDone(Batch batch) throws InterruptedIOException {
+        while (!batch.done) {
+            try {
+                batchDone.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for group commit");
+            }
+        }
+    }
+
+    private void startWriterIfNeeded() {
+        if (writer == null) {
+            writer = new Thread(this::runWriter, "demerit-journal-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    // Background writer for GROUP_COMMIT: waits for a full batch or the timer, then writes and forces it once
+    private void runWriter() {
+        try {
+            writeBatches();
+        } finally {
+            exitWriter();
+        }
+    }
+
+    private void writeBatches() {
+        while (true) {
+            Batch batch;
+            lock.lock();
+            try {
+                while (current.lines.isEmpty()) {
+                    batchReady.awaitUninterruptibly();
+                }
+                while (current.lines.size() < groupCommitRecords) {
+                    long remaining = current.openedAt + groupCommitNanos - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    try {
+                        batchReady.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                batch = current;
+                current = new Batch();
+            } finally {
+                lock.unlock();
+            }
+
+            Throwable failure = null;
+            try {
+                beforeWrite.accept(batch.lines);
+                write(batch.lines, true);
+            } catch (IOException | RuntimeException | Error e) {
+                failure = e;
+            } finally {
+                // Callers of the batch are always released, whatever the write threw
+                lock.lock();
+                try {
+                    batch.error = failure == null || failure instanceof IOException
+                        ? (IOException) failure
+                        : new IOException(failure.toString(), failure);
+                    batch.done = true;
+                    batchDone.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+        }
+    }
+
+    // Lets the next append start a new writer; one is started now if appends are already waiting
+    private void exitWriter() {
+        lock.lock();
+        try {
+            if (writer == Thread.currentThread()) {
+                writer = null;
+            }
+            if (!current.lines.isEmpty()) {
+                startWriterIfNeeded();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // One write (and optionally one force) for all the given lines
+    private void write(List<String> lines, boolean force) throws IOException {
+        StringBuilder out = new StringBuilder(lines.size() * 32);
+        for (String line : lines) {
+            out.append(line).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(out.toString().getBytes(StandardCharsets.UTF_8));
+        synchronized (channelLock) {
+            FileChannel target = openChannel();
+            long start = target.size();
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            if (force) {
+                target.force(false);
+            }
+            // Keep the per-person offset index current without rescanning the file
+            DemeritIndex.forFile(file.toString()).appended(start, lines);
+        }
+    }
+
+    // Opens the channel, or reopens it if the file was deleted or replaced since it was opened
+    private FileChannel openChannel() throws IOException {
+        Object key;
+        try {
+            key = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        } catch (NoSuchFileException e) {
+            key = null;
+        }
+        if (channel != null && channel.isOpen() && key != null && key.equals(channelKey)) {
+            return channel;
+        }
+        if (channel != null) {
+            channel.close();
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        channelKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        return channel;
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * When an append to the demerit points journal is considered done
+ */
+public enum Durability {
+    /** Each append is written and forced to disk before the call returns */
+    FLUSH_PER_CALL,
+    /** Appends are collected into one write + force, every N milliseconds or N records, whichever comes first */
+    GROUP_COMMIT,
+    /** Each append is handed to the operating system before the call returns, without forcing it to disk */
+    OS_BUFFERED
+}
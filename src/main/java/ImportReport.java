@@ -0,0 +1,77 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Per-record outcome of a bulk import (Person.addPersons), in input order
+ */
+public class ImportReport {
+
+    /** What happened to one input record */
+    public enum Status {
+        /** Valid, new ID, written to the persons file */
+        ACCEPTED,
+        /** Failed validation; see the entry's validation result */
+        INVALID,
+        /** ID already registered, or repeated earlier in the same import */
+        DUPLICATE_ID,
+        /** Valid and new, but the write to the persons file failed */
+        WRITE_FAILED
+    }
+
+    /**
+     * Outcome of one input record
+     */
+    public static class Entry {
+        private final int index;
+        private final String personID;
+        private final Status status;
+        private final ValidationResult validation;
+
+        Entry(int index, String personID, Status status, ValidationResult validation) {
+            this.index = index;
+            this.personID = personID;
+            this.status = status;
+            this.validation = validation;
+        }
+
+        /** @return position of the record in the input (0-based) */
+        public int getIndex() { return index; }
+        /** @return the record's person ID, or null if the record had none */
+        public String getPersonID() { return personID; }
+        public Status getStatus() { return status; }
+        /** @return the validation result (VALID unless the status is INVALID) */
+        public ValidationResult getValidation() { return validation; }
+
+        @Override
+        public String toString() {
+            return index + ": " + personID + " " + status + (status == Status.INVALID ? " (" + validation.getMessage() + ")" : "");
+        }
+    }
+
+    private final List<Entry> entries;
+
+    ImportReport(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    public List<Entry> getEntries() { return entries; }
+
+    public int size() { return entries.size(); }
+
+    /**
+     * @param status the status to count
+     * @return number of records with that status
+     */
+    public int count(Status status) {
+        int count = 0;
+        for (Entry entry : entries) {
+            if (entry.status == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getAccepted() { return count(Status.ACCEPTED); }
+}
@@ -0,0 +1,295 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshots of the in-memory indexes, so a new process can skip parsing the text files.
+ * A snapshot records the length, timestamp and a fingerprint of the text file it was built from,
+ * plus a checksum of its own contents, and is read back with one memory mapping.
+ * The fingerprint is a CRC32 of the first and last 64 KB of the covered bytes, cheap enough to
+ * check at every start.
+ *
+ * Person snapshots ({@code <persons file>.snap}) hold the latest record line of every person and are
+ * only used while the persons file is exactly as it was. Demerit snapshots ({@code <demerit file>.snap})
+ * hold every person's offense history; since that file is append-only they stay usable after appends,
+ * and only the bytes past the snapshot need parsing. While the demerit file has not grown, its
+ * timestamp must also match, so an edit that keeps the length is not missed.
+ */
+final class IndexSnapshot {
+    private static final int MAGIC = 0x534E4150; // "SNAP"
+    private static final int VERSION = 1;
+    static final int PERSONS = 1;
+    static final int DEMERITS = 2;
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 8 + 8 + 8 + 8 + 8 + 8;
+    private static final int FINGERPRINT_SPAN = 64 * 1024;
+
+    private IndexSnapshot() {
+    }
+
+    /**
+     * What a snapshot covers, read from its header
+     */
+    static final class Header {
+        final int kind;
+        final long sourceLength;
+        final long sourceModified;
+        final long fingerprint;
+        final long extra; // kind-specific (persons: line count of the source)
+
+        Header(int kind, long sourceLength, long sourceModified, long fingerprint, long extra) {
+            this.kind = kind;
+            this.sourceLength = sourceLength;
+            this.sourceModified = sourceModified;
+            this.fingerprint = fingerprint;
+            this.extra = extra;
+        }
+    }
+
+    /**
+     * Person records loaded from a snapshot
+     */
+    static final class Records {
+        final List<String> lines;
+        final long totalLines;
+
+        Records(List<String> lines, long totalLines) {
+            this.lines = lines;
+            this.totalLines = totalLines;
+        }
+    }
+
+    /**
+     * Demerit histories loaded from a snapshot, and how much of the demerit file they cover
+     */
+    static final class Histories {
+        final Map<String, DemeritHistory> histories;
+        final long coveredLength;
+
+        Histories(Map<String, DemeritHistory> histories, long coveredLength) {
+            this.histories = histories;
+            this.coveredLength = coveredLength;
+        }
+    }
+
+    static Path snapshotFile(Path source) {
+        return source.resolveSibling(source.getFileName() + ".snap");
+    }
+
+    /**
+     * Saves the person records of a persons file
+     * @param source the persons file the records were read from
+     * @param sourceLength its length when the records were current
+     * @param sourceModified its timestamp when the records were current
+     * @param totalLines its line count, including superseded versions
+     * @param lines the latest record line of every person
+     * @throws IOException if the snapshot could not be written
+     */
+    static void saveRecords(Path source, long sourceLength, long sourceModified, long totalLines, Collection<String> lines) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(lines.size() * 96 + 16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(lines.size());
+            for (String line : lines) {
+                byte[] encoded = line.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(encoded.length);
+                out.write(encoded);
+            }
+        }
+        write(source, new Header(PERSONS, sourceLength, sourceModified, fingerprint(source, sourceLength), totalLines), bytes.toByteArray());
+    }
+
+    /**
+     * Loads the person records of a persons file, if the snapshot matches the file exactly
+     * @param source the persons file
+     * @return the records, or null if there is no usable snapshot
+     */
+    static Records loadRecords(Path source) {
+        try {
+            if (!Files.exists(snapshotFile(source)) || !Files.exists(source)) {
+                return null;
+            }
+            long length = Files.size(source);
+            long modified = source.toFile().lastModified();
+            return read(source, PERSONS, (header, payload) -> {
+                if (header.sourceLength != length || header.sourceModified != modified
+                        || header.fingerprint != fingerprint(source, length)) {
+                    return null;
+                }
+                int count = payload.getInt();
+                List<String> lines = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    lines.add(readString(payload, payload.getInt()));
+                }
+                return new Records(lines, header.extra);
+            });
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Ignoring person snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Saves the demerit histories built from the first bytes of a demerit file
+     * @param source the demerit file
+     * @param coveredLength number of bytes of the file the histories were built from
+     * @param sourceModified the file's timestamp when it was coveredLength bytes long
+     * @param histories history per personID
+     * @throws IOException if the snapshot could not be written
+     */
+    static void saveHistories(Path source, long coveredLength, long sourceModified, Map<String, DemeritHistory> histories) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(histories.size() * 48 + 16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(histories.size());
+            for (Map.Entry<String, DemeritHistory> entry : histories.entrySet()) {
+                byte[] id = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(id.length);
+                out.write(id);
+                DemeritHistory history = entry.getValue();
+                out.writeInt(history.size());
+                for (int i = 0; i < history.size(); i++) {
+                    out.writeInt(history.dayAt(i));
+                    out.writeInt(history.pointsAt(i));
+                }
+            }
+        }
+        write(source, new Header(DEMERITS, coveredLength, sourceModified, fingerprint(source, coveredLength), 0), bytes.toByteArray());
+    }
+
+    /**
+     * Loads demerit histories, if the demerit file still starts with the bytes they were built from
+     * @param source the demerit file
+     * @return the histories and the number of bytes they cover, or null if there is no usable snapshot
+     */
+    static Histories loadHistories(Path source) {
+        try {
+            if (!Files.exists(snapshotFile(source)) || !Files.exists(source)) {
+                return null;
+            }
+            long length = Files.size(source);
+            long modified = source.toFile().lastModified();
+            return read(source, DEMERITS, (header, payload) -> {
+                // Appends change the timestamp, so it is only compared while the length is unchanged
+                if (header.sourceLength > length || (header.sourceLength == length && header.sourceModified != modified)
+                        || header.fingerprint != fingerprint(source, header.sourceLength)) {
+                    return null;
+                }
+                int count = payload.getInt();
+                Map<String, DemeritHistory> histories = new HashMap<>(Math.max(16, count * 4 / 3 + 1));
+                for (int p = 0; p < count; p++) {
+                    String personID = readString(payload, payload.getShort() & 0xFFFF);
+                    int size = payload.getInt();
+                    DemeritHistory history = new DemeritHistory();
+                    for (int i = 0; i < size; i++) {
+                        // Stored in day order, so every add is an append
+                        history.add(payload.getInt(), payload.getInt());
+                    }
+                    histories.put(personID, history);
+                }
+                return new Histories(histories, header.sourceLength);
+            });
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Ignoring demerit snapshot: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * CRC32 over the first and last 64 KB of the first length bytes of a file
+     * @param source the file
+     * @param length number of bytes to fingerprint
+     * @return the fingerprint
+     * @throws IOException if the file could not be read
+     */
+    static long fingerprint(Path source, long length) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putLong(0, length));
+        try (RandomAccessFile file = new RandomAccessFile(source.toFile(), "r")) {
+            byte[] head = new byte[(int) Math.min(FINGERPRINT_SPAN, length)];
+            file.seek(0);
+            file.readFully(head);
+            crc.update(head);
+            if (length > FINGERPRINT_SPAN) {
+                byte[] tail = new byte[(int) Math.min(FINGERPRINT_SPAN, length - FINGERPRINT_SPAN)];
+                file.seek(length - tail.length);
+                file.readFully(tail);
+                crc.update(tail);
+            }
+        }
+        return crc.getValue();
+    }
+
+    // Decodes a validated payload into T, or returns null to reject the snapshot
+    @FunctionalInterface
+    private interface PayloadReader<T> {
+        T read(Header header, ByteBuffer payload) throws IOException;
+    }
+
+    private static void write(Path source, Header header, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        Path target = snapshotFile(source);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(header.kind);
+            out.writeLong(header.sourceLength);
+            out.writeLong(header.sourceModified);
+            out.writeLong(header.fingerprint);
+            out.writeLong(header.extra);
+            out.writeLong(payload.length);
+            out.writeLong(crc.getValue());
+            out.write(payload);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        PersonMetrics.bytesWritten(HEADER_SIZE + payload.length);
+    }
+
+    private static <T> T read(Path source, int kind, PayloadReader<T> reader) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile(source), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != kind) {
+                return null;
+            }
+            Header header = new Header(kind, buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+            long payloadLength = buffer.getLong();
+            long checksum = buffer.getLong();
+            if (payloadLength != size - HEADER_SIZE) {
+                return null;
+            }
+            ByteBuffer payload = buffer.slice();
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != checksum) {
+                return null;
+            }
+            PersonMetrics.bytesRead(size);
+            return reader.read(header, payload);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read-only memory mapping of a pipe-separated data file (persons or demerit points), parsed in parallel.
+ * {@link #records} splits the file into newline-aligned chunks through a Spliterator, so a parallel
+ * stream parses one chunk per core, and each line is handed out as a {@link RecordView} over its bytes:
+ * fields are located and decoded only when asked for, instead of a String and a String[] per line.
+ *
+ * The mapping covers the file as it was when opened; lines appended later are not seen.
+ * Files of any size are mapped in 1 GiB segments.
+ */
+public class MappedRecordFile {
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+    // Below this many bytes a chunk is parsed on one thread
+    private static final long MIN_SPLIT = 1 << 16;
+
+    private final MappedByteBuffer[] segments;
+    private final long length;
+
+    private MappedRecordFile(MappedByteBuffer[] segments, long length) {
+        this.segments = segments;
+        this.length = length;
+    }
+
+    /**
+     * Maps a file
+     * @param file the file
+     * @return the mapped file
+     * @throws IOException if the file could not be opened or mapped (NoSuchFileException if it does not exist)
+     */
+    public static MappedRecordFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, length - start));
+            }
+            // The mapping stays valid after the channel is closed
+            return new MappedRecordFile(segments, length);
+        }
+    }
+
+    /**
+     * @return the mapped length in bytes
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * @return every non-empty line of the file, as a parallel ordered stream
+     */
+    public Stream<RecordView> records() {
+        return records(0, length);
+    }
+
+    /**
+     * Lines in a byte range, as a parallel ordered stream
+     * @param start byte position of the first line
+     * @param end end of the range (exclusive); a line running past it is cut off there
+     * @return the non-empty lines starting in the range
+     */
+    public Stream<RecordView> records(long start, long end) {
+        return StreamSupport.stream(new LineSpliterator(start, Math.min(end, length)), true);
+    }
+
+    /**
+     * @return every non-empty line of the file decoded as a String, in file order (decoded in parallel);
+     * the list is the caller's to change
+     */
+    public List<String> lines() {
+        return records().map(RecordView::line).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * @param start start of the range
+     * @param end end of the range (exclusive)
+     * @return the position just after the last line break in the range, or start if it has none
+     */
+    public long lastLineEnd(long start, long end) {
+        for (long i = Math.min(end, length) - 1; i >= start; i--) {
+            if (byteAt(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return start;
+    }
+
+    byte byteAt(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT_MASK));
+    }
+
+    // Position of the first occurrence of b in [from, to), or -1
+    long indexOf(byte b, long from, long to) {
+        for (long i = from; i < to; i++) {
+            if (byteAt(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    String decode(long start, long end) {
+        byte[] bytes = new byte[(int) (end - start)];
+        int segment = (int) (start >>> SEGMENT_BITS);
+        if (segment == (int) ((end - 1) >>> SEGMENT_BITS)) {
+            segments[segment].get((int) (start & SEGMENT_MASK), bytes);
+        } else {
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = byteAt(start + i);
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Hands out the lines of a byte range; splits at the first line break after the middle of its range
+     */
+    private final class LineSpliterator implements Spliterator<RecordView> {
+        private long position;
+        private final long end;
+
+        LineSpliterator(long position, long end) {
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super RecordView> action) {
+            while (position < end) {
+                long lineStart = position;
+                long lineBreak = indexOf((byte) '\n', position, end);
+                long lineEnd = lineBreak < 0 ? end : lineBreak;
+                position = lineBreak < 0 ? end : lineBreak + 1;
+                if (lineEnd > lineStart && byteAt(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                if (lineEnd > lineStart) {
+                    action.accept(new RecordView(MappedRecordFile.this, lineStart, lineEnd));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<RecordView> trySplit() {
+            long remaining = end - position;
+            if (remaining < MIN_SPLIT) {
+                return null;
+            }
+            long lineBreak = indexOf((byte) '\n', position + remaining / 2, end);
+            if (lineBreak < 0 || lineBreak + 1 >= end) {
+                return null;
+            }
+            LineSpliterator prefix = new LineSpliterator(position, lineBreak + 1);
+            position = lineBreak + 1;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            // Rough line count; records are around 80 bytes
+            return Math.max(0, (end - position) / 80);
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram, call/failure counters and file I/O counters for one Person operation
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder linesScanned = new LongAdder();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public String getName() { return name; }
+    public LatencyHistogram getLatency() { return latency; }
+
+    void recordCall(long nanos, boolean success) {
+        latency.record(nanos);
+        if (!success) {
+            failures.increment();
+        }
+    }
+
+    void addBytesRead(long bytes) { bytesRead.add(bytes); }
+    void addBytesWritten(long bytes) { bytesWritten.add(bytes); }
+    void addLinesScanned(long lines) { linesScanned.add(lines); }
+
+    @Override public long getCalls() { return latency.getCount(); }
+    @Override public long getFailures() { return failures.sum(); }
+    @Override public double getMeanMicros() { return latency.getMean() / 1000.0; }
+    @Override public long getP50Micros() { return toMicros(latency.getValueAtPercentile(50)); }
+    @Override public long getP99Micros() { return toMicros(latency.getValueAtPercentile(99)); }
+    @Override public long getP999Micros() { return toMicros(latency.getValueAtPercentile(99.9)); }
+    @Override public long getMaxMicros() { return toMicros(latency.getMax()); }
+    @Override public long getBytesRead() { return bytesRead.sum(); }
+    @Override public long getBytesWritten() { return bytesWritten.sum(); }
+    @Override public long getLinesScanned() { return linesScanned.sum(); }
+    @Override public double getBytesReadPerCall() { return perCall(getBytesRead()); }
+    @Override public double getBytesWrittenPerCall() { return perCall(getBytesWritten()); }
+    @Override public double getLinesScannedPerCall() { return perCall(getLinesScanned()); }
+
+    private double perCall(long total) {
+        long calls = getCalls();
+        return calls == 0 ? 0 : (double) total / calls;
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: calls=%d failures=%d mean=%.1fus p50=%dus p99=%dus max=%dus read=%dB written=%dB lines=%d",
+            name, getCalls(), getFailures(), getMeanMicros(), getP50Micros(), getP99Micros(), getMaxMicros(),
+            getBytesRead(), getBytesWritten(), getLinesScanned());
+    }
+}
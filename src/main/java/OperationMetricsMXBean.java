@@ -0,0 +1,18 @@
+/**
+ * JMX view of the metrics of one Person operation (times in microseconds)
+ */
+public interface OperationMetricsMXBean {
+    long getCalls();
+    long getFailures();
+    double getMeanMicros();
+    long getP50Micros();
+    long getP99Micros();
+    long getP999Micros();
+    long getMaxMicros();
+    long getBytesRead();
+    long getBytesWritten();
+    long getLinesScanned();
+    double getBytesReadPerCall();
+    double getBytesWrittenPerCall();
+    double getLinesScannedPerCall();
+}
@@ -1,12 +1,14 @@
 import java.util.HashMap;
-import java.util.List;
 import java.util.Date;
-import java.util.Map;
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.text.SimpleDateFormat;
-import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 import java.io.*;
+import java.nio.file.Path;
+import java.util.stream.Stream;
 
 public class Person {
     private String personID;
@@ -15,12 +17,14 @@ public class Person {
     private String address;
     private String birthdate;
     private HashMap<Date, Integer> demeritPoints; // A variable that holds the demerit points with the offense day
+    private DemeritHistory demeritHistory; // Same offenses sorted by day with running totals, used for the two-year window
     private boolean isSuspended;
     
-    // Constants for file names and date format
-    private static final String PERSON_FILE = "persons.txt";
-    private static final String DEMERIT_FILE = "demerit_points.txt";
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd-MM-yyyy");
+    // Constants for file names and date format (file names can be overridden with -Dperson.file / -Ddemerit.file)
+    private static final String PERSON_FILE = System.getProperty("person.file", "persons.txt");
+    private static final String DEMERIT_FILE = System.getProperty("demerit.file", "demerit_points.txt");
+    // DateTimeFormatter is immutable, so one instance is safe to share between threads
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-uuuu").withResolverStyle(ResolverStyle.STRICT); // Strict date parsing
 
     // Constructor
     public Person(String personID, String firstName, String lastName, String address, String birthdate) {
@@ -30,61 +34,41 @@ public class Person {
         this.address = address;
         this.birthdate = birthdate;
         this.demeritPoints = new HashMap<>();
+        this.demeritHistory = new DemeritHistory();
         this.isSuspended = false;
-        DATE_FORMAT.setLenient(false); // Strict date parsing
     }
 
     // Default constructor
     public Person() {
         this.demeritPoints = new HashMap<>();
+        this.demeritHistory = new DemeritHistory();
         this.isSuspended = false;
-        DATE_FORMAT.setLenient(false);
     }
 
     public boolean addPerson(String fileName) {
-        // Validate personID: exactly 10 characters
-        boolean isValidID = false;
-        isValidID = validateID(personID);
-        if (!isValidID){
-            System.out.println("Error: Invalid personID - must be 10 characters, first two digits 2-9, at least two special characters between 3rd-8th, last two uppercase letters.");
-            return false;
-        }
-
-        if (!address.matches("\\d+\\|[^|]+\\|[^|]+\\|Victoria\\|[^|]+")) {
-            System.out.println("Error: Invalid address format or state is not Victoria.");
-            return false; // address format is incorrect
-        }
-
-        if (!birthdate.matches("\\d{2}-\\d{2}-\\d{4}")) {
-            System.out.println("Error: Invalid birthdate format. Expected DD-MM-YYYY.");
-            return false; // birthdate format is incorrect
-        }
-
-        int year = Integer.parseInt(birthdate.substring(6));
-        if (year < 1900 || year > 2025) {
-            System.out.println("Error: Invalid birth year. Must be between 1900 and 2025.");
-            return false; // birth year is not valid
+        // Timed and counted under PersonMetrics.ADD_PERSON
+        try (PersonMetrics.Sample sample = PersonMetrics.start(PersonMetrics.ADD_PERSON)) {
+            return sample.completed(addPersonToFile(fileName));
         }
+    }
 
-        int month = Integer.parseInt(birthdate.substring(3, 5));
-        if (month < 1 || month > 12) {
-            System.out.println("Error: Invalid birth month. Must be between 1 and 12.");
-            return false; // month is not valid
+    private boolean addPersonToFile(String fileName) {
+        // Validate personID, address format and birthdate (see PersonValidator for the rules)
+        ValidationResult result = PersonValidator.validate(personID, address, birthdate);
+        if (!result.isValid()) {
+            System.out.println("Error: " + result.getMessage());
+            return false;
         }
 
-        int day = Integer.parseInt(birthdate.substring(0, 2));
-        if (day < 1 || day > 31) {
-            System.out.println("Error: Invalid birth day. Must be between 1 and 31.");
-            return false; // day is not valid
-        }
-       
         // txt file writing now ** NOT FINISHED **
-        String filetxt = personID + "|" + firstName + "|" + lastName + "|" + address + "|" + birthdate + "|" + isSuspended + "\n";
+        String filetxt = personID + "|" + firstName + "|" + lastName + "|" + address + "|" + birthdate + "|" + isSuspended;
         
-        try {
-            try (FileWriter fileWriter = new FileWriter(fileName, true)) {
-                fileWriter.write(filetxt);
-            }
+        try (PersonLocks.Handle lock = PersonLocks.lock(personID)) {
+            // The registry appends the line and keeps its index in step with the file
+            PersonShards.forFile(fileName).append(personID, filetxt);
+            PersonEventLog.publishQuietly(fileName, PersonEvent.Type.PERSON_ADDED, personID, personID, filetxt);
+            SuspensionTracker.personAdded(fileName, personID, birthdate);
+            PersonCache.shared().invalidate(personID);
         } catch (Exception e) {
             System.out.println("Could not create or write to file: " + e.getMessage());
             return false;
@@ -103,6 +87,14 @@ public class Person {
         //Instruction: If the Person's updated information meets the above conditions and any other conditions you may want to consider,
         //the Person's information should be updated in the TXT file with the updated information, and the updatePersonalDetails function should return true.
         //Otherwise, the Person's information should not be updated in the TXT file, and the updatePersonalDetails function should return false.
+        // Updates to the same person are serialized; both the current and the new ID are locked
+        try (PersonMetrics.Sample sample = PersonMetrics.start(PersonMetrics.UPDATE_PERSONAL_DETAILS);
+             PersonLocks.Handle lock = PersonLocks.lock(this.personID, newID)) {
+            return sample.completed(updatePersonalDetailsLocked(oldID, newID, newFirstName, newLastName, newAddress, newBirthdate));
+        }
+    }
+
+    private boolean updatePersonalDetailsLocked(String oldID, String newID, String newFirstName, String newLastName, String newAddress, String newBirthdate) {
         if (!personExists(this.personID)){
             return false;
         }
@@ -130,38 +122,8 @@ public class Person {
         }
 
         //Validate all new fields meet the same conditions as addPerson
-        //Validate newID
-        boolean isValidID = false;
-        isValidID = validateID(newID);
-        if (isValidID == false){
-            return false;
-        }
-        
-        // Validate new address format
-        if (!newAddress.matches("\\d+\\|[^|]+\\|[^|]+\\|Victoria\\|[^|]+")) {
-            return false;
-        }
-
-        //Validate new birthdate format
-        if (!newBirthdate.matches("\\d{2}-\\d{2}-\\d{4}")){
-            return false;
-        }
-
-        try {
-            int day = Integer.parseInt(newBirthdate.substring(0, 2));
-            int month = Integer.parseInt(newBirthdate.substring(3, 5));
-            int year = Integer.parseInt(newBirthdate.substring(6));
-
-            if (year < 1900 || year > 2025) return false;
-            if (month < 1 || month > 12) return false;
-            if (day < 1 || day > 31) return false;
-
-            //Additional validations
-            Calendar cal = Calendar.getInstance();
-            cal.setLenient(false);
-            cal.set(year, month - 1, day);
-            cal.getTime(); //check if date is invalid
-        } catch (Exception e){
+        //(newID, new address format, new birthdate format and a real calendar date)
+        if (!PersonValidator.validate(newID, newAddress, newBirthdate).isValid()){
             return false;
         }
 
@@ -177,34 +139,16 @@ public class Person {
     }
 
     private boolean updatePersonInFile (String originalID) {
+        String updatedLine = String.join("|", this.personID, this.firstName, this.lastName, this.address, this.birthdate, String.valueOf(this.isSuspended));
         try {
-            // read all persons
-            List<String> lines = new ArrayList<>();
-            boolean personFound = false;
-
-            try (BufferedReader reader = new BufferedReader(new FileReader(PERSON_FILE))) {
-                String line;
-                while ((line = reader.readLine()) != null){
-                    String[] parts = line.split("\\|");
-                    if (parts.length >= 6 && parts[0].equals(originalID)) {
-                        //Update record
-                        line = String.join("|", this.personID, this.firstName, this.lastName, this.address, this.birthdate, String.valueOf(this.isSuspended));
-                        personFound = true;
-                    }
-                    lines.add(line);
-                }
-            }
-            if (!personFound) {
+            // The registry rewrites the file or appends a new version, depending on its storage mode
+            if (!PersonShards.forFile(PERSON_FILE).update(originalID, this.personID, updatedLine)) {
                 return false;
             }
-
-            // Wrtie all persons back to the file
-            try (PrintWriter writer = new PrintWriter(new FileWriter(PERSON_FILE))){
-                for (String line : lines){
-                    writer.println(line);
-                }
-            }
-
+            PersonEventLog.publishQuietly(PERSON_FILE, PersonEvent.Type.DETAILS_UPDATED, this.personID, originalID, updatedLine);
+            SuspensionTracker.detailsUpdated(PERSON_FILE, originalID, this.personID, this.birthdate);
+            PersonCache.shared().invalidate(originalID);
+            PersonCache.shared().invalidate(this.personID);
             return true;
         } catch (IOException e) {
             System.out.println("Error updating person details: " + e.getMessage());
@@ -226,7 +170,14 @@ public class Person {
         //If the person is over 21, the isSuspended variable should be set to true if the total demerit points within two years exceed 12.
         //Instruction: If the above conditions and any other conditions you may want to consider are met, the demerit points for a person should be inserted into the TXT file,
         //and the addDemeritPoints function should return "Success". Otherwise, the addDemeritPoints function should return "Failed".
-        
+        try (PersonMetrics.Sample sample = PersonMetrics.start(PersonMetrics.ADD_DEMERIT_POINTS)) {
+            String result = addDemeritPointsToFile(offenseDate, points);
+            sample.completed("Success".equals(result));
+            return result;
+        }
+    }
+
+    private String addDemeritPointsToFile(String offenseDate, int points) {
         // Condition 1: Validate offense date format (DD-MM-YYYY)
         if (!isValidDateFormat(offenseDate)) {
             System.out.println("Invalid offense date format. Expected DD-MM-YYYY");
@@ -239,38 +190,77 @@ public class Person {
             return "Failed";
         }
         
-        // Check if person exists in the system
-        if (!personExists(this.personID)) {
-            System.out.println("Person does not exist in the system");
-            return "Failed";
-        }
-        
-        try {
+        // Offenses for the same person are serialized, different people run in parallel
+        try (PersonLocks.Handle lock = PersonLocks.lock(this.personID)) {
+            // Check if person exists in the system
+            if (!personExists(this.personID)) {
+                System.out.println("Person does not exist in the system");
+                return "Failed";
+            }
+
             // Parse the offense date
-            Date offense = DATE_FORMAT.parse(offenseDate);
+            LocalDate offense = LocalDate.parse(offenseDate, DATE_FORMAT);
             
-            // Add demerit points to the person's record
-            this.demeritPoints.put(offense, points);
+            // Add demerit points to the person's record (offenses on the same day add up)
+            Date offenseDay = Date.from(offense.atStartOfDay(ZoneId.systemDefault()).toInstant());
+            this.demeritPoints.merge(offenseDay, points, Integer::sum);
+            this.demeritHistory.add(offense, points);
             
             // Condition 3: Check suspension based on age and total points
             checkAndUpdateSuspensionStatus(offense);
             
             // Write demerit points to file
             if (writeDemeritPointsToFile(offenseDate, points)) {
+                PersonEventLog.publishQuietly(PERSON_FILE, PersonEvent.Type.DEMERIT_ADDED, this.personID, this.personID, offenseDate + "|" + points);
                 // Also update person file with new suspension status
                 updatePersonSuspensionInFile();
+                SuspensionTracker.offenseRecorded(PERSON_FILE, this.personID, offense, points, this.isSuspended);
+                PersonCache.shared().invalidate(this.personID);
                 return "Success";
             } else {
                 System.out.println("Failed to write demerit points to file");
                 return "Failed";
             }
             
-        } catch (ParseException e) {
+        } catch (DateTimeParseException e) {
             System.out.println("Error parsing offense date: " + e.getMessage());
             return "Failed";
         }
     }
     
+    /**
+     * Replaces the offenses held by this object with the person's full history from the demerit points file.
+     * Only this person's lines are read, located through DemeritIndex.
+     * @return true if the history was loaded, false if the file could not be read
+     */
+    public boolean loadDemeritHistory() {
+        try (PersonLocks.Handle lock = PersonLocks.lock(this.personID)) {
+            HashMap<Date, Integer> loadedPoints = new HashMap<>();
+            DemeritHistory loadedHistory = new DemeritHistory();
+            // Format: personID|offenseDate|points|isSuspended
+            for (String line : DemeritIndex.forFile(DEMERIT_FILE).linesFor(this.personID)) {
+                String[] parts = line.split("\\|");
+                if (parts.length < 3) {
+                    continue;
+                }
+                try {
+                    LocalDate offense = LocalDate.parse(parts[1], DATE_FORMAT);
+                    int points = Integer.parseInt(parts[2]);
+                    loadedPoints.merge(Date.from(offense.atStartOfDay(ZoneId.systemDefault()).toInstant()), points, Integer::sum);
+                    loadedHistory.add(offense, points);
+                } catch (DateTimeParseException | NumberFormatException e) {
+                    // Skip malformed lines
+                }
+            }
+            this.demeritPoints = loadedPoints;
+            this.demeritHistory = loadedHistory;
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error reading demerit points file: " + e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Validates if the date string follows DD-MM-YYYY format
      * @param dateString the date string to validate
@@ -282,36 +272,24 @@ public class Person {
         }
         
         try {
-            DATE_FORMAT.parse(dateString);
+            LocalDate.parse(dateString, DATE_FORMAT);
             return true;
-        } catch (ParseException e) {
+        } catch (DateTimeParseException e) {
             return false;
         }
     }
     
     /**
-     * Checks if person exists in the persons.txt file
+     * Checks if person exists in the persons.txt file (via the PersonRegistry index)
      * @param personID the person ID to check
      * @return true if person exists, false otherwise
      */
     protected boolean personExists(String personID) {
-        if (personID == null) {
-            return false;
+        // Answered from the in-memory index instead of scanning the file
+        try (PersonMetrics.Sample sample = PersonMetrics.start(PersonMetrics.PERSON_EXISTS)) {
+            sample.completed(true); // a miss is an answer, not a failure
+            return PersonShards.forFile(PERSON_FILE).contains(personID);
         }
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(PERSON_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split("\\|");
-                if (parts.length > 0 && parts[0].equals(personID)) {
-                    return true;
-                }
-            }
-        } catch (IOException e) {
-            // File doesn't exist or can't be read - person doesn't exist
-            return false;
-        }
-        return false;
     }
     
     /**
@@ -321,11 +299,9 @@ public class Person {
      */
     private int calculateAge(String birthdate) {
         try {
-            Date birth = DATE_FORMAT.parse(birthdate);
-            Date now = new Date();
-            long ageInMillis = now.getTime() - birth.getTime();
-            return (int) (ageInMillis / (365.25 * 24 * 60 * 60 * 1000));
-        } catch (ParseException e) {
+            LocalDate birth = LocalDate.parse(birthdate, DATE_FORMAT);
+            return Period.between(birth, LocalDate.now()).getYears();
+        } catch (DateTimeParseException e) {
             System.out.println("Error parsing birthdate: " + e.getMessage());
             return 0;
         }
@@ -336,48 +312,168 @@ public class Person {
      * @param fromDate the reference date
      * @return total points within 2 years
      */
-    private int calculateTotalPointsInTwoYears(Date fromDate) {
-        int totalPoints = 0;
-        
-        // Calculate date 2 years ago from the offense date
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(fromDate);
-        cal.add(Calendar.YEAR, -2);
-        Date twoYearsAgo = cal.getTime();
-        
-        // Sum up all demerit points within the 2-year window
-        for (Map.Entry<Date, Integer> entry : demeritPoints.entrySet()) {
-            Date offenseDate = entry.getKey();
-            // Check if offense date is within the 2-year window
-            if (offenseDate.after(twoYearsAgo) && !offenseDate.after(fromDate)) {
-                totalPoints += entry.getValue();
-            }
-        }
-        
-        return totalPoints;
+    private int calculateTotalPointsInTwoYears(LocalDate fromDate) {
+        // Window is (fromDate - 2 years, fromDate], answered from the sorted history
+        return (int) demeritHistory.pointsInTwoYears(fromDate);
     }
     
     /**
      * Checks and updates suspension status based on age and total demerit points
      * @param currentOffenseDate the current offense date
      */
-    private void checkAndUpdateSuspensionStatus(Date currentOffenseDate) {
+    private void checkAndUpdateSuspensionStatus(LocalDate currentOffenseDate) {
         int age = calculateAge(this.birthdate);
         int totalPoints = calculateTotalPointsInTwoYears(currentOffenseDate);
         
         // Condition 3: Check suspension thresholds
+        if (exceedsSuspensionThreshold(age, totalPoints)) {
+            this.isSuspended = true;
+            System.out.println((age < 21 ? "Person under 21" : "Person 21+") + " suspended with " + totalPoints + " points");
+        }
+    }
+
+    /**
+     * Suspension thresholds (Condition 3 of addDemeritPoints)
+     * @param age the person's age
+     * @param totalPoints total demerit points within two years
+     * @return true if the person should be suspended
+     */
+    static boolean exceedsSuspensionThreshold(int age, long totalPoints) {
         if (age < 21) {
             // Under 21: suspended if total points > 6
-            if (totalPoints > 6) {
-                this.isSuspended = true;
-                System.out.println("Person under 21 suspended with " + totalPoints + " points");
-            }
-        } else {
-            // 21 or over: suspended if total points > 12
-            if (totalPoints > 12) {
-                this.isSuspended = true;
-                System.out.println("Person 21+ suspended with " + totalPoints + " points");
-            }
+            return totalPoints > 6;
+        }
+        // 21 or over: suspended if total points > 12
+        return totalPoints > 12;
+    }
+
+    /**
+     * Parses a DD-MM-YYYY date with the same strict rules as the Person operations
+     * @param date the date string
+     * @return the parsed date
+     * @throws DateTimeParseException if the date is not valid
+     */
+    static LocalDate parseDate(String date) {
+        return LocalDate.parse(date, DATE_FORMAT);
+    }
+
+    /**
+     * Looks up a person with their demerit history loaded, from PersonCache when it holds them
+     * @param personID the person ID
+     * @return the person (the caller's own copy), or null if not found or the history could not be read
+     */
+    public static Person lookup(String personID) {
+        return PersonCache.shared().get(personID);
+    }
+
+    /**
+     * Reads a person's record and demerit history from the files (the PersonCache loader)
+     * @param personID the person ID
+     * @return the hydrated person, or null if not found or the history could not be read
+     */
+    static Person hydrate(String personID) {
+        String record = PersonShards.forFile(PERSON_FILE).getRecord(personID);
+        if (record == null) {
+            return null;
+        }
+        Person person = fromRecord(record);
+        return person.loadDemeritHistory() ? person : null;
+    }
+
+    /**
+     * @return an independent copy, including the demerit points and history
+     */
+    Person copy() {
+        Person copy = new Person(personID, firstName, lastName, address, birthdate);
+        copy.demeritPoints = new HashMap<>(demeritPoints);
+        copy.demeritHistory = demeritHistory.copy();
+        copy.isSuspended = isSuspended;
+        return copy;
+    }
+
+    /**
+     * Adds an already stored offense to the in-memory points and history, without writing anything
+     * @param offense the offense date
+     * @param points the demerit points
+     */
+    void addOffense(LocalDate offense, int points) {
+        demeritPoints.merge(Date.from(offense.atStartOfDay(ZoneId.systemDefault()).toInstant()), points, Integer::sum);
+        demeritHistory.add(offense, points);
+    }
+
+    /**
+     * @return number of offenses in the loaded history
+     */
+    int offenseCount() {
+        return demeritHistory.size();
+    }
+
+    /**
+     * Creates a Person from a stored record line
+     * @param line the record line (personID|firstName|lastName|address|birthdate|isSuspended)
+     * @return the person, with no offenses loaded
+     */
+    static Person fromRecord(String line) {
+        PersonView view = new PersonView(line);
+        Person person = new Person(view.getPersonID(), view.getFirstName(), view.getLastName(), view.getAddress(), view.getBirthdate());
+        person.isSuspended = view.isSuspended();
+        return person;
+    }
+
+    /**
+     * @return the persons file the Person operations use (-Dperson.file)
+     */
+    static String personFile() {
+        return PERSON_FILE;
+    }
+
+    /**
+     * Starts a streaming query over the registered persons (see PersonQuery)
+     * @return a query over the persons and demerit points files
+     */
+    public static PersonQuery query() {
+        return new PersonQuery(PERSON_FILE, DEMERIT_FILE);
+    }
+
+    /**
+     * Bulk version of addPerson: validates the records in parallel with the addPerson rules,
+     * skips IDs that are already registered (or repeated in the input), and writes every
+     * accepted record in one buffered write (see PersonImporter)
+     * @param fileName the persons file
+     * @param records records in the persons.txt line format (isSuspended field optional)
+     * @return the per-record result report
+     */
+    public static ImportReport addPersons(String fileName, Stream<String> records) {
+        return new PersonImporter(fileName).importRecords(records);
+    }
+
+    /**
+     * Bulk version of addPerson reading the records from a file, one per line
+     * @param fileName the persons file
+     * @param source the file with the records to import
+     * @return the per-record result report, or null if the source could not be read
+     */
+    public static ImportReport addPersons(String fileName, Path source) {
+        try {
+            return new PersonImporter(fileName).importFile(source);
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Could not read import file: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Re-evaluates the suspension status of every registered person as of the given date
+     * (see SuspensionRecompute) and writes back the flags that changed
+     * @param asOf the reference date for ages and the two-year window
+     * @return number of persons whose suspension status changed, or -1 if the files could not be processed
+     */
+    public static int recomputeSuspensions(LocalDate asOf) {
+        try {
+            return new SuspensionRecompute().recompute(PERSON_FILE, DEMERIT_FILE, asOf);
+        } catch (IOException e) {
+            System.out.println("Error recomputing suspensions: " + e.getMessage());
+            return -1;
         }
     }
     
@@ -388,9 +484,10 @@ public class Person {
      * @return true if successful, false otherwise
      */
     private boolean writeDemeritPointsToFile(String offenseDate, int points) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(DEMERIT_FILE, true))) {
+        try {
             // Format: personID|offenseDate|points|isSuspended
-            writer.println(personID + "|" + offenseDate + "|" + points + "|" + isSuspended);
+            // The journal keeps the file open and returns once its durability mode is met
+            DemeritJournal.forFile(DEMERIT_FILE).append(personID + "|" + offenseDate + "|" + points + "|" + isSuspended);
             return true;
         } catch (IOException e) {
             System.out.println("Error writing to demerit points file: " + e.getMessage());
@@ -403,9 +500,9 @@ public class Person {
      * @return true if successful, false otherwise
      */
     private boolean writePersonToFile() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(PERSON_FILE, true))) {
+        try {
             // Format: personID|firstName|lastName|address|birthdate|isSuspended
-            writer.println(personID + "|" + firstName + "|" + lastName + "|" + 
+            PersonShards.forFile(PERSON_FILE).append(personID, personID + "|" + firstName + "|" + lastName + "|" +
                           address + "|" + birthdate + "|" + isSuspended);
             return true;
         } catch (IOException e) {
@@ -419,36 +516,19 @@ public class Person {
      * @return true if successful, false otherwise
      */
     private boolean updatePersonSuspensionInFile() {
+        PersonRegistry registry = PersonShards.forFile(PERSON_FILE).registryFor(this.personID);
+        String currentLine = registry.getRecord(this.personID);
+        if (currentLine == null) {
+            return false;
+        }
         try {
-            // Read all lines from the file
-            java.util.List<String> lines = new java.util.ArrayList<>();
-            boolean personFound = false;
-            
-            try (BufferedReader reader = new BufferedReader(new FileReader(PERSON_FILE))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    String[] parts = line.split("\\|");
-                    if (parts.length >= 6 && parts[0].equals(this.personID)) {
-                        // Update the suspension status (last field)
-                        parts[5] = String.valueOf(this.isSuspended);
-                        line = String.join("|", parts);
-                        personFound = true;
-                    }
-                    lines.add(line);
-                }
-            }
-            
-            if (!personFound) {
+            // Update the suspension status (last field) of the stored record
+            if (!registry.update(this.personID, this.personID, PersonRegistry.withSuspension(currentLine, this.isSuspended))) {
                 return false;
             }
-            
-            // Write all lines back to the file
-            try (PrintWriter writer = new PrintWriter(new FileWriter(PERSON_FILE))) {
-                for (String line : lines) {
-                    writer.println(line);
-                }
+            if (currentLine.endsWith("|true") != this.isSuspended) {
+                PersonEventLog.publishQuietly(PERSON_FILE, PersonEvent.Type.SUSPENSION_CHANGED, this.personID, this.personID, String.valueOf(this.isSuspended));
             }
-            
             return true;
         } catch (IOException e) {
             System.out.println("Error updating person suspension status: " + e.getMessage());
@@ -456,40 +536,6 @@ public class Person {
         }
     }
 
-    /* VALIDATE Person ID */
-    private boolean validateID(String ID) {
-        // Validate personID: exactly 10 characters
-        if (personID.length() != 10) {
-            return false;
-        }
-        // First two characters should be digits between 2 and 9
-        if (!Character.isDigit(personID.charAt(0)) || !Character.isDigit(personID.charAt(1))) {
-            return false;
-        }
-        int firstDigit = Character.getNumericValue(personID.charAt(0));
-        int secondDigit = Character.getNumericValue(personID.charAt(1));
-        if (firstDigit < 2 || firstDigit > 9 || secondDigit < 2 || secondDigit > 9) {
-            return false;
-        }
-        // At least two special characters between characters 3 and 8 (index 2 to 7)
-        int specialCount = 0;
-        for (int i = 2; i < 8; i++) {
-            char c = personID.charAt(i);
-            if (!Character.isLetterOrDigit(c)) {
-                specialCount++;
-            }
-        }
-        if (specialCount < 2) {
-            return false;
-        }
-        // Last two characters should be uppercase letters (A-Z)
-        if (!Character.isUpperCase(personID.charAt(8)) || !Character.isUpperCase(personID.charAt(9))) {
-            return false;
-        }
-
-        return true;
-    }
-
     // Getters and Setters
     public String getPersonID() { return personID; }
     public void setPersonID(String personID) { this.personID = personID; }
@@ -510,4 +556,6 @@ public class Person {
     public void setSuspended(boolean suspended) { isSuspended = suspended; }
     
     public HashMap<Date, Integer> getDemeritPoints() { return demeritPoints; }
+
+    public DemeritHistory getDemeritHistory() { return demeritHistory; }
 }
\ No newline at end of file
@@ -0,0 +1,172 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Bloom filter over personIDs.
+ * A negative answer is definite, so lookups for unregistered IDs can return without the persons file;
+ * a positive answer may be a false positive at (roughly) the configured rate.
+ * The filter can be saved next to the persons file together with the length/timestamp of the
+ * file it describes, so a later process can tell whether it is still current.
+ */
+public class PersonBloomFilter {
+    private static final int MAGIC = 0x424C4F4D; // "BLOM"
+    private static final int VERSION = 1;
+
+    private final long[] words;
+    private final long numBits;
+    private final int numHashes;
+    private final int capacity;
+    private final double falsePositiveRate;
+    private int count;
+
+    /**
+     * Creates an empty filter sized for the expected number of IDs and false positive rate
+     * @param expectedIDs number of IDs the filter should hold at the given rate
+     * @param falsePositiveRate target false positive rate, between 0 and 1 (exclusive)
+     */
+    public PersonBloomFilter(int expectedIDs, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        this.capacity = Math.max(1, expectedIDs);
+        this.falsePositiveRate = falsePositiveRate;
+        // Standard sizing: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max(64, bits);
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / capacity * Math.log(2)));
+        this.words = new long[(int) ((numBits + 63) / 64)];
+        this.count = 0;
+    }
+
+    private PersonBloomFilter(long[] words, long numBits, int numHashes, int capacity, double falsePositiveRate, int count) {
+        this.words = words;
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+        this.capacity = capacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.count = count;
+    }
+
+    /**
+     * Adds an ID to the filter
+     * @param personID the ID to add
+     */
+    public void add(String personID) {
+        long hash = hash64(personID);
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = hash >>> 32;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        count++;
+    }
+
+    /**
+     * @param personID the ID to check
+     * @return false if the ID was definitely never added, true if it may have been
+     */
+    public boolean mightContain(String personID) {
+        long hash = hash64(personID);
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = hash >>> 32;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true once more IDs were added than the filter was sized for
+     */
+    public boolean isOverCapacity() {
+        return count > capacity;
+    }
+
+    public int getCount() { return count; }
+    public double getFalsePositiveRate() { return falsePositiveRate; }
+
+    /**
+     * Saves the filter together with the state of the persons file it describes
+     * @param target the filter file
+     * @param sourceLength length of the persons file
+     * @param sourceModified last modified time of the persons file
+     * @throws IOException if the filter could not be written
+     */
+    public void save(Path target, long sourceLength, long sourceModified) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceLength);
+            out.writeLong(sourceModified);
+            out.writeDouble(falsePositiveRate);
+            out.writeInt(numHashes);
+            out.writeLong(numBits);
+            out.writeInt(capacity);
+            out.writeInt(count);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a saved filter, if it exists and still describes the persons file as it is now
+     * @param source the filter file
+     * @param sourceLength current length of the persons file
+     * @param sourceModified current last modified time of the persons file
+     * @return the filter, or null if there is none or it is stale or unreadable
+     */
+    public static PersonBloomFilter load(Path source, long sourceLength, long sourceModified) {
+        if (!Files.exists(source)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            if (in.readLong() != sourceLength || in.readLong() != sourceModified) {
+                return null; // persons file changed since the filter was saved
+            }
+            double falsePositiveRate = in.readDouble();
+            int numHashes = in.readInt();
+            long numBits = in.readLong();
+            int capacity = in.readInt();
+            int count = in.readInt();
+            long[] words = new long[(int) ((numBits + 63) / 64)];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            return new PersonBloomFilter(words, numBits, numHashes, capacity, falsePositiveRate, count);
+        } catch (IOException e) {
+            System.out.println("Ignoring unreadable bloom filter: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // FNV-1a over the characters, finished with the MurmurHash3 64-bit mix
+    static long hash64(CharSequence value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
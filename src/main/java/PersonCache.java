@@ -0,0 +1,169 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of hydrated Person objects (record plus demerit history), keyed by personID.
+ * A few repeat offenders account for most requests, so keeping them hydrated saves reading the
+ * record and the demerit history for every request.
+ *
+ * Entries are weighed as 1 + number of offenses, and the least recently used entries are evicted
+ * once the total weight passes the limit (-Dpersons.cacheWeight, default 100000). Callers get
+ * their own copy of the cached person, so changes they make never leak into the cache; the Person
+ * write paths invalidate the entries they change instead.
+ */
+public class PersonCache {
+    private static final long DEFAULT_MAX_WEIGHT = 100_000;
+    private static final PersonCache SHARED = new PersonCache(Long.getLong("persons.cacheWeight", DEFAULT_MAX_WEIGHT), Person::hydrate);
+
+    private final LinkedHashMap<String, Person> entries = new LinkedHashMap<>(16, 0.75f, true); // access order
+    private final Function<String, Person> loader;
+    private final long maxWeight;
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations; // bumped by every invalidate, so loads racing a write are not cached
+
+    /**
+     * @param maxWeight the weight limit (at least 1)
+     * @param loader hydrates a person by ID, or returns null if there is no such person
+     */
+    PersonCache(long maxWeight, Function<String, Person> loader) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("Cache weight limit must be at least 1");
+        }
+        this.maxWeight = maxWeight;
+        this.loader = loader;
+    }
+
+    /**
+     * @return the cache used by the Person operations for the configured persons and demerit files
+     */
+    public static PersonCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns a hydrated person, loading and caching it on a miss
+     * @param personID the person ID
+     * @return a copy of the cached person, or null if the person does not exist
+     */
+    public Person get(String personID) {
+        if (personID == null) {
+            return null;
+        }
+        long seen;
+        synchronized (this) {
+            Person cached = entries.get(personID);
+            if (cached != null) {
+                hits++;
+                return cached.copy();
+            }
+            misses++;
+            seen = invalidations;
+        }
+        // Load outside the lock so a slow read does not hold up hits for other persons
+        Person loaded = loader.apply(personID);
+        if (loaded == null) {
+            return null;
+        }
+        synchronized (this) {
+            if (invalidations == seen && !entries.containsKey(personID)) {
+                entries.put(personID, loaded);
+                weight += weigh(loaded);
+                evictOverweight();
+            }
+        }
+        return loaded.copy();
+    }
+
+    /**
+     * Drops a person from the cache; called after every change to the person's record or offenses
+     * @param personID the person ID
+     */
+    public synchronized void invalidate(String personID) {
+        invalidations++;
+        Person removed = entries.remove(personID);
+        if (removed != null) {
+            weight -= weigh(removed);
+        }
+    }
+
+    /**
+     * Drops several persons from the cache
+     * @param personIDs the person IDs
+     */
+    public synchronized void invalidateAll(Collection<String> personIDs) {
+        for (String personID : personIDs) {
+            invalidate(personID);
+        }
+    }
+
+    /**
+     * Empties the cache (statistics are kept)
+     */
+    public synchronized void clear() {
+        invalidations++;
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized long getHits() { return hits; }
+
+    public synchronized long getMisses() { return misses; }
+
+    public synchronized long getEvictions() { return evictions; }
+
+    /**
+     * @return share of lookups answered from the cache (0 when nothing was looked up yet)
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return total weight of the cached persons
+     */
+    public synchronized long getWeight() { return weight; }
+
+    public long getMaxWeight() { return maxWeight; }
+
+    /**
+     * @return number of cached persons
+     */
+    public synchronized int size() { return entries.size(); }
+
+    /**
+     * @return the cached IDs, least recently used first
+     */
+    synchronized List<String> keys() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PersonCache[" + entries.size() + " persons, weight " + weight + "/" + maxWeight
+            + ", hits " + hits + ", misses " + misses + ", evictions " + evictions + "]";
+    }
+
+    private static long weigh(Person person) {
+        return 1 + person.offenseCount();
+    }
+
+    // Least recently used first; a single person heavier than the limit is not kept
+    private void evictOverweight() {
+        Iterator<Map.Entry<String, Person>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            Person evicted = eldest.next().getValue();
+            eldest.remove();
+            weight -= weigh(evicted);
+            evictions++;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * One change to the persons data, as published by PersonEventLog.
+ * Offsets increase by one per event and identify the event in the log.
+ */
+public class PersonEvent {
+
+    /** What changed */
+    public enum Type {
+        /** A person was added; the payload is the record line */
+        PERSON_ADDED,
+        /** A person's details were updated; the payload is the new record line, previousID the ID before */
+        DETAILS_UPDATED,
+        /** An offense was recorded; the payload is offenseDate|points */
+        DEMERIT_ADDED,
+        /** isSuspended flipped; the payload is the new value (true/false) */
+        SUSPENSION_CHANGED
+    }
+
+    private final long offset;
+    private final long timestamp;
+    private final Type type;
+    private final String personID;
+    private final String previousID;
+    private final String payload;
+
+    PersonEvent(long offset, long timestamp, Type type, String personID, String previousID, String payload) {
+        this.offset = offset;
+        this.timestamp = timestamp;
+        this.type = type;
+        this.personID = personID;
+        this.previousID = previousID;
+        this.payload = payload;
+    }
+
+    public long getOffset() { return offset; }
+    /** @return when the event was published (epoch milliseconds) */
+    public long getTimestamp() { return timestamp; }
+    public Type getType() { return type; }
+    public String getPersonID() { return personID; }
+    /** @return the ID before the change for DETAILS_UPDATED, otherwise the same as getPersonID() */
+    public String getPreviousID() { return previousID; }
+    public String getPayload() { return payload; }
+
+    /**
+     * @return the new suspension status of a SUSPENSION_CHANGED event
+     */
+    public boolean isSuspended() {
+        return Boolean.parseBoolean(payload);
+    }
+
+    // Log line: offset|timestamp|type|personID|previousID|payload (the payload may contain '|')
+    String toLine() {
+        return offset + "|" + timestamp + "|" + type + "|" + personID + "|" + previousID + "|" + payload;
+    }
+
+    static PersonEvent fromLine(String line) {
+        String[] parts = line.split("\\|", 6);
+        if (parts.length < 6) {
+            throw new IllegalArgumentException("Not an event line: " + line);
+        }
+        return new PersonEvent(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Type.valueOf(parts[2]),
+            parts[3], parts[4], parts[5]);
+    }
+
+    @Override
+    public String toString() {
+        return toLine();
+    }
+}
@@ -0,0 +1,395 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change feed of the persons data: every add, detail update, demerit add and suspension change is
+ * appended to an event log next to the persons file ({@code <file>.events}) and published to
+ * {@link Flow.Subscriber}s, so downstream systems no longer poll persons.txt.
+ *
+ * Subscribers read from the log itself, never from a per-subscriber queue: an event is delivered only
+ * after it was requested, at most bufferSize events are read ahead, and a slow subscriber simply falls
+ * behind in the file without holding memory. A named subscriber can {@link #commit(String, long)} the
+ * offset it has processed; subscribing again under that name resumes with the next event, also in a
+ * new process.
+ *
+ * The log is only written once it is in use: after {@link #forFile(String)} was called for the persons
+ * file, or for every file with -Dpersons.events=true.
+ */
+public class PersonEventLog implements Flow.Publisher<PersonEvent> {
+    private static final int DEFAULT_BUFFER_SIZE = 256;
+    private static final int TAIL_SCAN = 64 * 1024;
+
+    // One log per persons file (keyed by absolute path)
+    private static final Map<String, PersonEventLog> LOGS = new HashMap<>();
+    // Delivery threads, shared by all subscriptions; each subscription drains on one thread at a time
+    private static final ExecutorService DELIVERY = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "person-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path file;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private FileChannel channel;
+    private long nextOffset;
+    private volatile long length; // bytes of complete events in the log
+    private volatile int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    PersonEventLog(Path file) throws IOException {
+        this.file = file;
+        open();
+    }
+
+    /**
+     * Returns the event log of a persons file, starting to record events for it
+     * @param personFile the persons file name
+     * @return the event log
+     * @throws IOException if the log could not be opened
+     */
+    public static synchronized PersonEventLog forFile(String personFile) throws IOException {
+        String key = Paths.get(personFile).toAbsolutePath().toString();
+        PersonEventLog log = LOGS.get(key);
+        if (log == null) {
+            log = new PersonEventLog(Paths.get(key + ".events"));
+            LOGS.put(key, log);
+        }
+        return log;
+    }
+
+    /**
+     * Publishes an event if the persons file has an event log in use; errors are reported, not thrown,
+     * so a failing feed never fails the change itself
+     * @param personFile the persons file that changed
+     * @param type what changed
+     * @param personID the person's ID after the change
+     * @param previousID the person's ID before the change
+     * @param payload the event payload (see PersonEvent.Type)
+     */
+    static void publishQuietly(String personFile, PersonEvent.Type type, String personID, String previousID, String payload) {
+        try {
+            PersonEventLog log;
+            synchronized (PersonEventLog.class) {
+                log = LOGS.get(Paths.get(personFile).toAbsolutePath().toString());
+            }
+            if (log == null && Boolean.getBoolean("persons.events")) {
+                log = forFile(personFile);
+            }
+            if (log != null) {
+                log.publish(type, personID, previousID, payload);
+            }
+        } catch (IOException e) {
+            System.out.println("Error publishing person event: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends an event to the log and wakes the subscribers
+     * @param type what changed
+     * @param personID the person's ID after the change
+     * @param previousID the person's ID before the change
+     * @param payload the event payload (see PersonEvent.Type)
+     * @return the published event
+     * @throws IOException if the event could not be written
+     */
+    public PersonEvent publish(PersonEvent.Type type, String personID, String previousID, String payload) throws IOException {
+        PersonEvent event;
+        synchronized (this) {
+            event = new PersonEvent(nextOffset, System.currentTimeMillis(), type, personID, previousID, payload);
+            ByteBuffer bytes = ByteBuffer.wrap((event.toLine() + "\n").getBytes(StandardCharsets.UTF_8));
+            int size = bytes.remaining();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            PersonMetrics.bytesWritten(size);
+            nextOffset++;
+            length += size;
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.signal();
+        }
+        return event;
+    }
+
+    /**
+     * Subscribes to events published from now on
+     * @param subscriber the subscriber
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super PersonEvent> subscriber) {
+        long start;
+        long offset;
+        synchronized (this) {
+            start = length;
+            offset = nextOffset;
+        }
+        attach(new Subscription(subscriber, null, start, offset));
+    }
+
+    /**
+     * Subscribes under a durable name, starting after the last offset committed under that name
+     * (or with the oldest event in the log if nothing was committed yet)
+     * @param name the subscriber name (letters, digits, '-' and '_')
+     * @param subscriber the subscriber
+     */
+    public void subscribe(String name, Flow.Subscriber<? super PersonEvent> subscriber) {
+        checkName(name);
+        long offset;
+        long position;
+        try {
+            // Offsets are 0, 1, 2, ... so the first event after the committed one is found by counting lines
+            offset = committedOffset(name) + 1;
+            position = positionOf(offset);
+        } catch (IOException e) {
+            subscriber.onSubscribe(new Subscription(subscriber, name, 0, 0));
+            subscriber.onError(e);
+            return;
+        }
+        attach(new Subscription(subscriber, name, position, offset));
+    }
+
+    /**
+     * Records that the named subscriber has processed every event up to and including the offset
+     * @param name the subscriber name
+     * @param offset the last processed offset
+     * @throws IOException if the offset could not be saved
+     */
+    public void commit(String name, long offset) throws IOException {
+        checkName(name);
+        Path target = offsetFile(name);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.writeString(temp, Long.toString(offset));
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param name the subscriber name
+     * @return the last offset committed under that name, or -1 if none
+     * @throws IOException if the offset file could not be read
+     */
+    public long committedOffset(String name) throws IOException {
+        checkName(name);
+        Path source = offsetFile(name);
+        return Files.exists(source) ? Long.parseLong(Files.readString(source).trim()) : -1;
+    }
+
+    /**
+     * @return the offset the next published event will get
+     */
+    public synchronized long getNextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * Sets how many events a subscription reads ahead at most
+     * @param bufferSize number of events, at least 1
+     */
+    public void setBufferSize(int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be at least 1");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    private void attach(Subscription subscription) {
+        subscriptions.add(subscription);
+        subscription.subscriber.onSubscribe(subscription);
+    }
+
+    // Reads the end of an existing log to continue its offsets; a torn last line is cut off
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        long scanFrom = Math.max(0, size - TAIL_SCAN);
+        ByteBuffer tail = ByteBuffer.allocate((int) (size - scanFrom));
+        channel.read(tail, scanFrom);
+        byte[] bytes = tail.array();
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] != '\n') {
+            end--;
+        }
+        if (end < bytes.length) {
+            channel.truncate(scanFrom + end);
+        }
+        length = scanFrom + end;
+        nextOffset = 0;
+        if (end > 0) {
+            int start = end - 1;
+            while (start > 0 && bytes[start - 1] != '\n') {
+                start--;
+            }
+            String last = new String(bytes, start, end - 1 - start, StandardCharsets.UTF_8);
+            nextOffset = PersonEvent.fromLine(last).getOffset() + 1;
+        }
+        channel.position(length);
+    }
+
+    // Byte position of the event with the given offset (or the end of the log)
+    private long positionOf(long offset) throws IOException {
+        long position = 0;
+        long current = 0;
+        long end = length;
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        while (current < offset && position < end) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            int i = 0;
+            for (; i < read && current < offset; i++) {
+                if (buffer.get(i) == '\n') {
+                    current++;
+                }
+            }
+            position += i;
+        }
+        return Math.min(position, end);
+    }
+
+    // Reads up to max complete events starting at the given position
+    private List<String> readLines(long position, int max) throws IOException {
+        List<String> lines = new ArrayList<>();
+        long end = length;
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        while (lines.size() < max && position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read && lines.size() < max; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    lines.add(line.toString(StandardCharsets.UTF_8));
+                    line.reset();
+                } else {
+                    line.write(b);
+                }
+            }
+            position += read;
+        }
+        return lines;
+    }
+
+    private Path offsetFile(String name) {
+        return file.resolveSibling(file.getFileName() + "." + name + ".offset");
+    }
+
+    private static void checkName(String name) {
+        if (name == null || !name.matches("[A-Za-z0-9_-]+")) {
+            throw new IllegalArgumentException("Subscriber names may only use letters, digits, '-' and '_'");
+        }
+    }
+
+    /**
+     * One subscriber's position in the log and outstanding demand
+     */
+    private final class Subscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super PersonEvent> subscriber;
+        private final String name;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger work = new AtomicInteger();
+        private volatile boolean cancelled;
+        private long position;   // byte position of the next event to deliver
+        private long nextOffset; // offset of the next event to deliver
+
+        Subscription(Flow.Subscriber<? super PersonEvent> subscriber, String name, long position, long nextOffset) {
+            this.subscriber = subscriber;
+            this.name = name;
+            this.position = position;
+            this.nextOffset = nextOffset;
+        }
+
+        @Override
+        public void request(long n) {
+            if (cancelled) {
+                return;
+            }
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Requested " + n + " events; must be positive"));
+                return;
+            }
+            // Add without overflowing: Long.MAX_VALUE means unbounded
+            demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        // Schedules a drain unless one is already running; the running one picks up the new work
+        void signal() {
+            if (!cancelled && work.getAndIncrement() == 0) {
+                DELIVERY.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            while (true) {
+                try {
+                    deliver();
+                } catch (IOException | RuntimeException e) {
+                    cancel();
+                    subscriber.onError(e);
+                    return;
+                }
+                missed = work.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void deliver() throws IOException {
+            while (!cancelled && demand.get() > 0) {
+                int batch = (int) Math.min(demand.get(), bufferSize);
+                List<String> lines = readLines(position, batch);
+                if (lines.isEmpty()) {
+                    return;
+                }
+                for (String line : lines) {
+                    if (cancelled) {
+                        return;
+                    }
+                    position += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                    PersonEvent event = PersonEvent.fromLine(line);
+                    nextOffset = event.getOffset() + 1;
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+                    subscriber.onNext(event);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Subscription[" + (name == null ? "live" : name) + " at offset " + nextOffset + "]";
+        }
+    }
+}
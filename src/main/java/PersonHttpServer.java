@@ -0,0 +1,330 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dependency-free HTTP front-end for the Person operations, built on the JDK HttpServer.
+ * <pre>
+ * GET  /persons/{id}           look up a person
+ * POST /persons                add a person (personID, firstName, lastName, address, birthdate)
+ * PUT  /persons/{id}           update details (any of personID, firstName, lastName, address, birthdate)
+ * POST /persons/{id}/demerits  add demerit points (offenseDate, points)
+ * </pre>
+ * Request bodies are form encoded ({@code application/x-www-form-urlencoded}) and responses are JSON.
+ * IDs in the path must be percent-encoded.
+ *
+ * Each request runs on a virtual thread when the JVM has them (Java 21+); on older JVMs a thread pool
+ * sized to the in-flight limit is used instead. At most maxInFlight requests run at once: a request
+ * only goes to a thread once it holds an in-flight permit, and requests over the limit get 503 straight
+ * away (answered on the dispatcher thread, never queued) so clients can back off.
+ */
+public class PersonHttpServer {
+    private static final int DEFAULT_MAX_IN_FLIGHT = 1000;
+    // Set while the dispatcher thread answers a request that was over the limit
+    private static final ThreadLocal<Boolean> REJECTED = new ThreadLocal<>();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+
+    /**
+     * Creates a server on the given address; call {@link #start()} to serve requests
+     * @param address the address to listen on (port 0 picks a free port)
+     * @param maxInFlight maximum number of requests handled at once
+     * @throws IOException if the address could not be bound
+     */
+    public PersonHttpServer(InetSocketAddress address, int maxInFlight) throws IOException {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("In-flight limit must be at least 1");
+        }
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.executor = newRequestExecutor(maxInFlight);
+        this.server = HttpServer.create(address, 0);
+        this.server.createContext("/persons", this::handle);
+        this.server.setExecutor(this::admit);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits up to the given time for running ones, then stops the threads
+     * @param delaySeconds how long to wait for running requests
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Starts a server: {@code java PersonHttpServer [port] [maxInFlight]}
+     * (defaults -Dperson.http.port=8080, -Dperson.http.maxInFlight=1000)
+     * @param args optional port and in-flight limit
+     * @throws IOException if the port could not be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("person.http.port", 8080);
+        int limit = args.length > 1 ? Integer.parseInt(args[1]) : Integer.getInteger("person.http.maxInFlight", DEFAULT_MAX_IN_FLIGHT);
+        PersonHttpServer server = new PersonHttpServer(new InetSocketAddress(port), limit);
+        server.start();
+        System.out.println("Serving persons on port " + server.getPort() + " (max " + limit + " requests in flight)");
+    }
+
+    /**
+     * A virtual-thread-per-task executor if the running JVM has one, otherwise a pool of up to maxInFlight threads
+     */
+    static ExecutorService newRequestExecutor(int maxInFlight) {
+        try {
+            // Looked up reflectively so the code still compiles and runs on Java 17
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxInFlight, maxInFlight, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "person-http-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    /**
+     * The server's {@link Executor}: takes an in-flight permit before the request is handed to a thread,
+     * so requests over the limit never wait in the pool. Without a permit the request is run on the
+     * calling dispatcher thread, where {@link #handle} only answers 503.
+     */
+    private void admit(Runnable request) {
+        if (!inFlight.tryAcquire()) {
+            REJECTED.set(Boolean.TRUE);
+            try {
+                request.run();
+            } finally {
+                REJECTED.remove();
+            }
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    request.run();
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (REJECTED.get() != null) {
+            send(exchange, 503, error("Too many requests in flight"));
+            return;
+        }
+        try {
+            route(exchange);
+        } catch (RuntimeException e) {
+            send(exchange, 500, error(e.toString()));
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        // /persons, /persons/{id} or /persons/{id}/demerits
+        String[] path = exchange.getRequestURI().getRawPath().split("/");
+        String personID = path.length > 2 ? decodePath(path[2]) : null;
+        boolean demerits = path.length == 4 && "demerits".equals(path[3]);
+
+        if (path.length == 2 && "POST".equals(method)) {
+            addPerson(exchange, form(exchange));
+        } else if (path.length == 3 && "GET".equals(method)) {
+            lookup(exchange, personID);
+        } else if (path.length == 3 && "PUT".equals(method)) {
+            updatePerson(exchange, personID, form(exchange));
+        } else if (demerits && "POST".equals(method)) {
+            addDemeritPoints(exchange, personID, form(exchange));
+        } else {
+            send(exchange, 404, error("No route for " + method + " " + exchange.getRequestURI().getRawPath()));
+        }
+    }
+
+    private void lookup(HttpExchange exchange, String personID) throws IOException {
+        String record = registry().getRecord(personID);
+        if (record == null) {
+            send(exchange, 404, error("Person does not exist"));
+        } else {
+            send(exchange, 200, json(new PersonView(record)));
+        }
+    }
+
+    private void addPerson(HttpExchange exchange, Map<String, String> form) throws IOException {
+        String personID = form.get("personID");
+        Person person = new Person(personID, form.get("firstName"), form.get("lastName"), form.get("address"), form.get("birthdate"));
+        boolean exists;
+        boolean added = false;
+        // The check and the append happen under the person's lock, so of two POSTs for the same ID only one adds it
+        try (PersonLocks.Handle lock = PersonLocks.lock(personID)) {
+            exists = personID != null && registry().contains(personID);
+            if (!exists) {
+                added = person.addPerson(Person.personFile());
+            }
+        }
+        if (exists) {
+            send(exchange, 409, error("Person already exists"));
+        } else if (added) {
+            send(exchange, 201, json(new PersonView(registry().getRecord(personID))));
+        } else {
+            send(exchange, 400, error("Person details are not valid"));
+        }
+    }
+
+    private void updatePerson(HttpExchange exchange, String personID, Map<String, String> form) throws IOException {
+        Person person = Person.lookup(personID);
+        if (person == null) {
+            send(exchange, 404, error("Person does not exist"));
+            return;
+        }
+        // Fields that are not sent keep their current value
+        String newID = form.getOrDefault("personID", person.getPersonID());
+        boolean updated = person.updatePersonalDetails(personID, newID,
+            form.getOrDefault("firstName", person.getFirstName()),
+            form.getOrDefault("lastName", person.getLastName()),
+            form.getOrDefault("address", person.getAddress()),
+            form.getOrDefault("birthdate", person.getBirthdate()));
+        if (updated) {
+            send(exchange, 200, json(new PersonView(registry().getRecord(newID))));
+        } else {
+            send(exchange, 400, error("Update is not allowed"));
+        }
+    }
+
+    private void addDemeritPoints(HttpExchange exchange, String personID, Map<String, String> form) throws IOException {
+        if (!registry().contains(personID)) {
+            send(exchange, 404, error("Person does not exist"));
+            return;
+        }
+        int points;
+        try {
+            points = Integer.parseInt(form.getOrDefault("points", ""));
+        } catch (NumberFormatException e) {
+            send(exchange, 400, error("points must be a number"));
+            return;
+        }
+        // The suspension check needs the person's earlier offenses; repeat offenders come from the cache.
+        // The history is loaded under the person's lock so a concurrent offense cannot be missed
+        // (the lock is reentrant, and addDemeritPoints takes it again)
+        Person person;
+        String result;
+        try (PersonLocks.Handle lock = PersonLocks.lock(personID)) {
+            person = Person.lookup(personID);
+            result = person == null ? null : person.addDemeritPoints(form.get("offenseDate"), points);
+        }
+        if (person == null) {
+            send(exchange, 500, error("Could not read demerit history"));
+        } else if ("Success".equals(result)) {
+            send(exchange, 201, "{\"personID\":" + quote(personID) + ",\"isSuspended\":" + person.isSuspended() + "}");
+        } else {
+            send(exchange, 400, error("Demerit points are not valid"));
+        }
+    }
+
+    private static PersonShards registry() {
+        return PersonShards.forFile(Person.personFile());
+    }
+
+    private static Map<String, String> form(HttpExchange exchange) throws IOException {
+        Map<String, String> form = new HashMap<>();
+        String body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        for (String pair : body.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            form.put(name, value);
+        }
+        return form;
+    }
+
+    // Path segments are percent-encoded; '+' is literal there, unlike in form bodies
+    private static String decodePath(String segment) {
+        return URLDecoder.decode(segment.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+
+    private static String json(PersonView view) {
+        return "{\"personID\":" + quote(view.getPersonID())
+            + ",\"firstName\":" + quote(view.getFirstName())
+            + ",\"lastName\":" + quote(view.getLastName())
+            + ",\"address\":" + quote(view.getAddress())
+            + ",\"birthdate\":" + quote(view.getBirthdate())
+            + ",\"isSuspended\":" + view.isSuspended() + "}";
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
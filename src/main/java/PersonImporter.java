@@ -0,0 +1,104 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Bulk import of person records (e.g. the nightly licensing extract) into a persons file.
+ * Records use the persons.txt line format, with or without the trailing isSuspended field.
+ * Records are validated in parallel with the addPerson rules (PersonValidator), checked for
+ * duplicate IDs against the registry and within the import, and every accepted record is
+ * written in one buffered sequential append.
+ */
+public class PersonImporter {
+    public static final String ADD_PERSONS = "addPersons";
+
+    private final String personFile;
+
+    public PersonImporter(String personFile) {
+        this.personFile = personFile;
+    }
+
+    /**
+     * Imports the records of a file, one record per line
+     * @param source the file to import
+     * @return the per-record report
+     * @throws IOException if the source could not be read
+     */
+    public ImportReport importFile(Path source) throws IOException {
+        try (Stream<String> lines = Files.lines(source)) {
+            return importRecords(lines);
+        }
+    }
+
+    /**
+     * Imports a stream of records
+     * @param records the records; blank lines are skipped
+     * @return the per-record report
+     */
+    public ImportReport importRecords(Stream<String> records) {
+        try (PersonMetrics.Sample sample = PersonMetrics.start(ADD_PERSONS)) {
+            List<String> lines = records.filter(line -> !line.isBlank()).collect(Collectors.toList());
+            PersonMetrics.linesScanned(lines.size());
+
+            // Validation has no shared state, so it runs in parallel
+            ValidationResult[] validation = IntStream.range(0, lines.size()).parallel()
+                .mapToObj(i -> PersonValidator.validateRecord(lines.get(i)))
+                .toArray(ValidationResult[]::new);
+
+            List<String> valid = new ArrayList<>();
+            List<Integer> validIndexes = new ArrayList<>();
+            for (int i = 0; i < lines.size(); i++) {
+                if (validation[i].isValid()) {
+                    String line = lines.get(i);
+                    // Stored records always carry the suspension field
+                    valid.add(hasSuspensionField(line) ? line : line + "|false");
+                    validIndexes.add(i);
+                }
+            }
+
+            boolean[] written = null;
+            try {
+                written = PersonShards.forFile(personFile).appendAllNew(valid);
+            } catch (IOException e) {
+                System.out.println("Could not create or write to file: " + e.getMessage());
+            }
+
+            List<ImportReport.Entry> entries = new ArrayList<>(lines.size());
+            int next = 0;
+            for (int i = 0; i < lines.size(); i++) {
+                String personID = PersonRegistry.idOf(lines.get(i));
+                ImportReport.Status status;
+                if (!validation[i].isValid()) {
+                    status = ImportReport.Status.INVALID;
+                } else {
+                    // validIndexes is in input order, so the next valid record is this one
+                    int position = next++;
+                    if (written == null) {
+                        status = ImportReport.Status.WRITE_FAILED;
+                    } else {
+                        status = written[position] ? ImportReport.Status.ACCEPTED : ImportReport.Status.DUPLICATE_ID;
+                        if (written[position]) {
+                            // Same notifications as a single addPerson
+                            String record = valid.get(position);
+                            PersonEventLog.publishQuietly(personFile, PersonEvent.Type.PERSON_ADDED, personID, personID, record);
+                            SuspensionTracker.personAdded(personFile, personID, new PersonView(record).getBirthdate());
+                        }
+                    }
+                }
+                entries.add(new ImportReport.Entry(i, personID, status, validation[i]));
+            }
+            ImportReport report = new ImportReport(entries);
+            sample.completed(written != null);
+            return report;
+        }
+    }
+
+    private static boolean hasSuspensionField(String line) {
+        return line.endsWith("|true") || line.endsWith("|false");
+    }
+}
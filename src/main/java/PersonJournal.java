@@ -0,0 +1,195 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal for the persons file ({@link StorageMode#JOURNALED}).
+ * Each mutation is appended as one line {@code <crc32 hex>|<record>} and forced to disk before the
+ * caller returns. A record is either a full person line (put) or a tombstone ({@code !personID}),
+ * so replaying the journal over the last checkpoint of the persons file rebuilds the registry.
+ * Replay stops at the first record whose checksum does not match (a write torn by a crash)
+ * and cuts the journal back to the last good record.
+ *
+ * A checkpoint first rotates the journal to {@code <file>.old}, so writers can go on while the
+ * snapshot is written, and deletes the rotated journal once the snapshot is in place.
+ * Replaying a record that is already in the snapshot gives the same result, so a crash at any
+ * point of a checkpoint loses nothing.
+ */
+class PersonJournal {
+    private final Path file;
+    private final Path rotated;
+    private FileChannel channel;
+    private int records; // records appended since the last rotation (or found by replay)
+
+    PersonJournal(Path file) {
+        this.file = file;
+        this.rotated = file.resolveSibling(file.getFileName() + ".old");
+    }
+
+    /**
+     * Appends records and forces them to disk
+     * @param payloads person lines or tombstones (without line breaks)
+     * @throws IOException if the records could not be written
+     */
+    void append(List<String> payloads) throws IOException {
+        StringBuilder out = new StringBuilder();
+        CRC32 crc = new CRC32();
+        for (String payload : payloads) {
+            byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+            crc.reset();
+            crc.update(bytes);
+            out.append(Long.toHexString(crc.getValue())).append('|').append(payload).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(out.toString().getBytes(StandardCharsets.UTF_8));
+        int length = buffer.remaining();
+        FileChannel target = channel();
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        target.force(false);
+        records += payloads.size();
+        PersonMetrics.bytesWritten(length);
+    }
+
+    /**
+     * Feeds every intact record (rotated journal first) to the given consumer
+     * @param apply receives each record payload in order
+     * @return number of records replayed
+     * @throws IOException if a journal could not be read or cut back
+     */
+    int replay(Consumer<String> apply) throws IOException {
+        int replayed = replay(rotated, apply) + replay(file, apply);
+        records = replayed;
+        return replayed;
+    }
+
+    /**
+     * @return true if neither journal file holds any records
+     */
+    boolean isEmpty() {
+        return length(file) == 0 && length(rotated) == 0;
+    }
+
+    /**
+     * @return records appended or replayed since the last rotation
+     */
+    int records() {
+        return records;
+    }
+
+    /**
+     * Moves the current journal aside for a checkpoint. If an earlier checkpoint did not finish,
+     * the current records are added to the rotated journal instead.
+     * @throws IOException if the journal could not be moved
+     */
+    void rotate() throws IOException {
+        close();
+        if (Files.exists(file)) {
+            if (Files.exists(rotated)) {
+                Files.write(rotated, Files.readAllBytes(file), StandardOpenOption.APPEND);
+                Files.delete(file);
+            } else {
+                Files.move(file, rotated);
+            }
+        }
+        records = 0;
+    }
+
+    /**
+     * Deletes the rotated journal once the checkpoint holding its records is in place
+     * @throws IOException if it could not be deleted
+     */
+    void dropRotated() throws IOException {
+        Files.deleteIfExists(rotated);
+    }
+
+    /**
+     * Drops every record (both journals), e.g. after a checkpoint made while writes were held off
+     * @throws IOException if the journals could not be removed
+     */
+    void clear() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+        dropRotated();
+        records = 0;
+    }
+
+    void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private static int replay(Path journal, Consumer<String> apply) throws IOException {
+        if (!Files.exists(journal)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(journal);
+        PersonMetrics.bytesRead(bytes.length);
+        CRC32 crc = new CRC32();
+        int count = 0;
+        int start = 0;
+        while (start < bytes.length) {
+            int end = start;
+            while (end < bytes.length && bytes[end] != '\n') {
+                end++;
+            }
+            if (end == bytes.length) {
+                break; // no line break: torn write
+            }
+            int separator = start;
+            while (separator < end && bytes[separator] != '|') {
+                separator++;
+            }
+            if (separator == end) {
+                break;
+            }
+            long expected;
+            try {
+                expected = Long.parseLong(new String(bytes, start, separator - start, StandardCharsets.US_ASCII), 16);
+            } catch (NumberFormatException e) {
+                break;
+            }
+            crc.reset();
+            crc.update(bytes, separator + 1, end - separator - 1);
+            if (crc.getValue() != expected) {
+                break;
+            }
+            apply.accept(new String(bytes, separator + 1, end - separator - 1, StandardCharsets.UTF_8));
+            count++;
+            start = end + 1;
+        }
+        PersonMetrics.linesScanned(count);
+        if (start < bytes.length) {
+            // Cut off the torn tail so new records are not appended after garbage
+            try (FileChannel truncate = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+                truncate.truncate(start);
+                truncate.force(false);
+            }
+        }
+        return count;
+    }
+
+    private static long length(Path path) {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
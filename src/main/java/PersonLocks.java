@@ -0,0 +1,97 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks keyed on personID.
+ * Operations on the same person are serialized, while operations on different people
+ * (that land on different stripes) run in parallel. When two IDs need locking (an ID change)
+ * the stripes are always taken in index order so two updates cannot deadlock.
+ */
+public final class PersonLocks {
+    // Power of two so the stripe index is a mask of the hash
+    private static final int STRIPES = 64;
+    private static final ReentrantLock[] LOCKS = new ReentrantLock[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new ReentrantLock();
+        }
+    }
+
+    private PersonLocks() {
+    }
+
+    /**
+     * Locks the stripe of one person
+     * @param personID the person ID
+     * @return a handle that releases the lock on close
+     */
+    public static Handle lock(String personID) {
+        ReentrantLock lock = LOCKS[stripeOf(personID)];
+        lock.lock();
+        return lock::unlock;
+    }
+
+    /**
+     * Locks the stripes of two persons (e.g. old and new ID) in a fixed order
+     * @param firstID the first person ID
+     * @param secondID the second person ID
+     * @return a handle that releases both locks on close
+     */
+    public static Handle lock(String firstID, String secondID) {
+        int first = stripeOf(firstID);
+        int second = stripeOf(secondID);
+        if (first == second) {
+            return lock(firstID);
+        }
+        ReentrantLock lower = LOCKS[Math.min(first, second)];
+        ReentrantLock higher = LOCKS[Math.max(first, second)];
+        lower.lock();
+        higher.lock();
+        return () -> {
+            higher.unlock();
+            lower.unlock();
+        };
+    }
+
+    /**
+     * Locks the stripes of many persons, in index order like {@link #lock(String, String)}
+     * @param personIDs the person IDs
+     * @return a handle that releases all the locks on close
+     */
+    public static Handle lockAll(Collection<String> personIDs) {
+        boolean[] needed = new boolean[STRIPES];
+        for (String personID : personIDs) {
+            needed[stripeOf(personID)] = true;
+        }
+        List<ReentrantLock> taken = new ArrayList<>();
+        for (int i = 0; i < STRIPES; i++) {
+            if (needed[i]) {
+                LOCKS[i].lock();
+                taken.add(LOCKS[i]);
+            }
+        }
+        return () -> {
+            for (int i = taken.size() - 1; i >= 0; i--) {
+                taken.get(i).unlock();
+            }
+        };
+    }
+
+    static int stripeOf(String personID) {
+        int hash = personID == null ? 0 : personID.hashCode();
+        // Spread the high bits down before masking, as HashMap does
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * Releases the locks taken by {@link #lock(String)} when used in try-with-resources
+     */
+    @FunctionalInterface
+    public interface Handle extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
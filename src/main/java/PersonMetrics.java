@@ -0,0 +1,127 @@
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * In-process metrics registry for the Person operations.
+ * Each operation gets an OperationMetrics (latency histogram, failures, bytes read/written,
+ * lines scanned), also registered with the platform MBeanServer as
+ * {@code roadregistry:type=PersonOperation,name=<operation>}.
+ *
+ * File I/O done while an operation is running on the current thread is counted against that
+ * operation; I/O outside any operation (e.g. background compaction) is counted against "background".
+ */
+public final class PersonMetrics {
+    public static final String ADD_PERSON = "addPerson";
+    public static final String UPDATE_PERSONAL_DETAILS = "updatePersonalDetails";
+    public static final String ADD_DEMERIT_POINTS = "addDemeritPoints";
+    public static final String PERSON_EXISTS = "personExists";
+    public static final String BACKGROUND = "background";
+
+    private static final Map<String, OperationMetrics> OPERATIONS = new ConcurrentHashMap<>();
+    // Operation running on this thread, so I/O can be attributed to it
+    private static final ThreadLocal<OperationMetrics> CURRENT = new ThreadLocal<>();
+
+    private PersonMetrics() {
+    }
+
+    /**
+     * Returns (creating and registering it on first use) the metrics of an operation
+     * @param name the operation name
+     * @return the operation's metrics
+     */
+    public static OperationMetrics operation(String name) {
+        return OPERATIONS.computeIfAbsent(name, PersonMetrics::register);
+    }
+
+    /**
+     * @return the metrics of every operation seen so far, by name
+     */
+    public static Map<String, OperationMetrics> snapshot() {
+        return Collections.unmodifiableMap(new TreeMap<>(OPERATIONS));
+    }
+
+    /**
+     * Starts timing a call of an operation on the current thread
+     * @param name the operation name
+     * @return the running sample; close it (try-with-resources) when the call returns
+     */
+    public static Sample start(String name) {
+        return new Sample(operation(name));
+    }
+
+    static void bytesRead(long bytes) {
+        current().addBytesRead(bytes);
+    }
+
+    static void bytesWritten(long bytes) {
+        current().addBytesWritten(bytes);
+    }
+
+    static void linesScanned(long lines) {
+        current().addLinesScanned(lines);
+    }
+
+    private static OperationMetrics current() {
+        OperationMetrics metrics = CURRENT.get();
+        return metrics != null ? metrics : operation(BACKGROUND);
+    }
+
+    private static OperationMetrics register(String name) {
+        OperationMetrics metrics = new OperationMetrics(name);
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("roadregistry:type=PersonOperation,name=" + ObjectName.quote(name));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(metrics, objectName);
+            }
+        } catch (JMException | SecurityException e) {
+            System.out.println("Could not register metrics for " + name + " with JMX: " + e.getMessage());
+        }
+        return metrics;
+    }
+
+    /**
+     * One timed call of an operation. Nested calls (e.g. personExists inside addDemeritPoints)
+     * are timed on their own; I/O is counted against the innermost running operation.
+     */
+    public static final class Sample implements AutoCloseable {
+        private final OperationMetrics metrics;
+        private final OperationMetrics previous;
+        private final long startNanos;
+        private boolean success;
+
+        private Sample(OperationMetrics metrics) {
+            this.metrics = metrics;
+            this.previous = CURRENT.get();
+            this.startNanos = System.nanoTime();
+            this.success = false;
+            CURRENT.set(metrics);
+        }
+
+        /**
+         * Marks the outcome of the call
+         * @param ok whether the operation succeeded
+         * @return ok, so the call can be returned directly
+         */
+        public boolean completed(boolean ok) {
+            this.success = ok;
+            return ok;
+        }
+
+        @Override
+        public void close() {
+            metrics.recordCall(System.nanoTime() - startNanos, success);
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streaming query over the stored persons, e.g.
+ * <pre>
+ * try (Stream&lt;PersonView&gt; suspended = Person.query().suspendedOnly().ageBetween(18, 25, today).stream()) { ... }
+ * </pre>
+ * The filters are applied to the raw record line before a PersonView is made, reading only the
+ * characters they need (the last field, the birthdate digits). While the persons file holds the latest
+ * version of every record (REWRITE mode) it is read from a memory mapping; otherwise the registry's index
+ * is streamed. Records are filtered and decoded in parallel (shards, and chunks of each mapped file) and
+ * only the matches are kept, in file order, so filters given to {@link #where(Predicate)} must be thread-safe.
+ */
+public class PersonQuery {
+    private final String personFile;
+    private final String demeritFile;
+    private Predicate<String> filter = line -> true;
+    private int pointsOver = -1;
+    private LocalDate pointsAsOf;
+
+    /**
+     * @param personFile the persons file to query
+     * @param demeritFile the demerit points file, used by {@link #pointsOver(int, LocalDate)}
+     */
+    public PersonQuery(String personFile, String demeritFile) {
+        this.personFile = personFile;
+        this.demeritFile = demeritFile;
+    }
+
+    /**
+     * Keeps only suspended persons
+     * @return this query
+     */
+    public PersonQuery suspendedOnly() {
+        filter = filter.and(line -> line.endsWith("|true"));
+        return this;
+    }
+
+    /**
+     * Keeps only persons aged between the given ages (inclusive) on the reference date
+     * @param minAge lowest age to keep
+     * @param maxAge highest age to keep
+     * @param asOf the reference date
+     * @return this query
+     */
+    public PersonQuery ageBetween(int minAge, int maxAge, LocalDate asOf) {
+        // Age a..b on asOf means born after asOf - (b + 1) years and on or before asOf - a years
+        int bornAfter = key(asOf.minusYears(maxAge + 1L));
+        int bornOnOrBefore = key(asOf.minusYears(minAge));
+        filter = filter.and(line -> {
+            int birthdate = PersonView.birthdateKey(line);
+            return birthdate > bornAfter && birthdate <= bornOnOrBefore;
+        });
+        return this;
+    }
+
+    /**
+     * Keeps only persons with more than the given demerit points in the two years up to the reference date
+     * @param points the points to exceed
+     * @param asOf the reference date
+     * @return this query
+     */
+    public PersonQuery pointsOver(int points, LocalDate asOf) {
+        this.pointsOver = points;
+        this.pointsAsOf = asOf;
+        return this;
+    }
+
+    /**
+     * Adds any other filter on the record line
+     * @param lineFilter condition on the record line (personID|firstName|lastName|address|birthdate|isSuspended)
+     * @return this query
+     */
+    public PersonQuery where(Predicate<String> lineFilter) {
+        filter = filter.and(lineFilter);
+        return this;
+    }
+
+    /**
+     * Runs the query; the matching persons are found before the stream is returned
+     * @return the matching persons, in file order when read from the file
+     * @throws UncheckedIOException if the persons or demerit file could not be read
+     */
+    public Stream<PersonView> stream() {
+        Predicate<String> lineFilter = filter;
+        if (pointsOver >= 0) {
+            Map<String, DemeritHistory> histories = loadHistories();
+            int threshold = pointsOver;
+            LocalDate asOf = pointsAsOf;
+            lineFilter = lineFilter.and(line -> {
+                DemeritHistory history = histories.get(PersonRegistry.idOf(line));
+                return history != null && history.pointsInTwoYears(asOf) > threshold;
+            });
+        }
+        // Lines are counted on the worker threads and reported on this one, where the metrics sample is
+        LongAdder scanned = new LongAdder();
+        List<PersonView> matches = lines(scanned).parallel().filter(lineFilter).map(PersonView::new)
+            .collect(Collectors.toList());
+        PersonMetrics.linesScanned(scanned.sum());
+        return matches.stream();
+    }
+
+    private Stream<String> lines(LongAdder scanned) {
+        List<String> files = PersonShards.forFile(personFile).files();
+        if (files.size() == 1) {
+            return lines(files.get(0), scanned);
+        }
+        // Sharded: each shard file is scanned on its own core
+        return files.parallelStream().flatMap(file -> lines(file, scanned));
+    }
+
+    private Stream<String> lines(String file, LongAdder scanned) {
+        PersonRegistry registry = PersonRegistry.forFile(file);
+        if (!registry.fileHoldsLatest()) {
+            return registry.snapshot().stream();
+        }
+        Path path = Paths.get(file);
+        if (!Files.exists(path)) {
+            return Stream.empty();
+        }
+        try {
+            // Tombstones are skipped on the mapped bytes, before the line is decoded
+            return MappedRecordFile.open(path).records()
+                .filter(line -> !line.startsWith(PersonRegistry.TOMBSTONE.charAt(0)))
+                .peek(line -> scanned.increment())
+                .map(RecordView::line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Map<String, DemeritHistory> loadHistories() {
+        try {
+            return SuspensionRecompute.loadHistories(demeritFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int key(LocalDate date) {
+        return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+}
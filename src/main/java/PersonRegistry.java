@@ -0,0 +1,1106 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory index over a persons file, keyed by personID.
+ * The file is read once and the index is then kept current by the write paths in Person,
+ * so existence checks and record lookups no longer scan the file.
+ * If the file is changed by something other than Person (e.g. deleted or edited by hand)
+ * the index notices the different length/timestamp and reloads on the next call.
+ *
+ * In {@link StorageMode#APPEND_LOG} mode updates are appended as new versions of the record
+ * (plus a tombstone line when the ID changes) instead of rewriting the file, and a background
+ * compactor rewrites the file once the share of superseded lines passes the compaction ratio.
+ *
+ * In {@link StorageMode#JOURNALED} mode every change is appended and forced to a write-ahead journal
+ * ({@code <file>.wal}, see PersonJournal) and the persons file only changes at checkpoints.
+ * Loading replays the journal over the last checkpoint, and a background checkpoint runs once the
+ * journal holds the configured number of records (-Dpersons.checkpointRecords, default 10000).
+ *
+ * A Bloom filter over the IDs is kept alongside the index and saved next to the file
+ * ({@code <file>.bloom}). While it matches the file, lookups for unregistered IDs are answered
+ * from it, so a fresh process can reject them without loading the file at all.
+ * The false positive rate defaults to 1% and can be set with -Dpersons.bloomFpp.
+ *
+ * The index itself is saved as a binary snapshot ({@code <file>.snap}, see IndexSnapshot) at shutdown,
+ * by {@link #saveSnapshot()} and every -Dpersons.snapshotSeconds if set. A new process that finds a
+ * snapshot matching the file loads it with one memory mapping instead of parsing the file.
+ *
+ * Optional secondary indexes on last name and suburb (see PersonSecondaryIndex) are built on the
+ * first query, or at load with -Dpersons.secondaryIndexes=true, and then kept current by every write.
+ *
+ * Every committed write publishes a new immutable {@link RegistryVersion}. Lookups, size and snapshot
+ * read the latest version without taking the registry lock, so they never wait for a write (or a file
+ * rewrite) to finish; {@link #pin()} holds one version for a series of consistent reads. Files are
+ * replaced atomically in REWRITE mode, so readers of the file itself never see it half written either.
+ */
+public class PersonRegistry {
+    // One registry per persons file (keyed by absolute path)
+    private static final Map<String, PersonRegistry> REGISTRIES = new HashMap<>();
+    // Every registry not yet garbage collected; one shutdown hook saves their filters and snapshots
+    private static final Set<PersonRegistry> LIVE = Collections.newSetFromMap(new WeakHashMap<>());
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(PersonRegistry::saveLive, "persons-index-save"));
+    }
+    // Marks a personID as removed in APPEND_LOG mode (IDs always start with a digit)
+    static final String TOMBSTONE = "!";
+    private static final double DEFAULT_COMPACTION_RATIO = 0.5;
+    private static final int MIN_BLOOM_CAPACITY = 1024;
+    // Shared background thread for periodic snapshots
+    private static final ScheduledExecutorService SNAPSHOTTER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "persons-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Shared background thread for compactions
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "persons-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final File file;
+    private final HashMap<String, String> records; // personID -> latest record line
+    private long knownLength;
+    private long knownModified;
+    private boolean loaded;
+    private int totalLines; // record lines in the file, including superseded versions and tombstones
+    private StorageMode storageMode;
+    private double compactionRatio;
+    private boolean compactionScheduled;
+    private PersonBloomFilter bloom;
+    private double bloomFalsePositiveRate;
+    private boolean bloomLoadAttempted;
+    private boolean bloomDirty; // IDs added since the filter was last saved
+    private long bloomLength;   // persons file length/timestamp the filter describes
+    private long bloomModified;
+    private final PersonJournal journal;
+    private final Object checkpointLock = new Object();
+    private int checkpointRecords;
+    private boolean checkpointScheduled;
+    private long snapshotLength = -1; // persons file length/timestamp the saved snapshot describes
+    private long snapshotModified;
+    private ScheduledFuture<?> snapshotJob;
+    private PersonSecondaryIndex secondary; // null until enabled
+    private volatile RegistryVersion version;  // latest committed records, null until loaded
+    private final Map<String, String> pending = new HashMap<>(); // changed since version (null = removed)
+    private boolean rebuildVersion;            // records were reloaded; next version is a full copy
+    private volatile boolean writing;          // a write holds the lock; the file may be mid-change
+    private final Set<RegistryVersion> retained = ConcurrentHashMap.newKeySet(); // superseded but pinned
+
+    PersonRegistry(File file) {
+        this.file = file;
+        this.records = new HashMap<>();
+        this.loaded = false;
+        this.storageMode = StorageMode.REWRITE;
+        this.compactionRatio = DEFAULT_COMPACTION_RATIO;
+        this.bloomFalsePositiveRate = Double.parseDouble(System.getProperty("persons.bloomFpp", "0.01"));
+        this.journal = new PersonJournal(file.toPath().resolveSibling(file.getName() + ".wal"));
+        this.checkpointRecords = Integer.getInteger("persons.checkpointRecords", 10000);
+        // Registered with the shutdown hook, which saves the filter and snapshot for the next process
+        synchronized (LIVE) {
+            LIVE.add(this);
+        }
+        if (Boolean.getBoolean("persons.secondaryIndexes")) {
+            this.secondary = new PersonSecondaryIndex();
+        }
+        long snapshotSeconds = Long.getLong("persons.snapshotSeconds", 0);
+        if (snapshotSeconds > 0) {
+            startSnapshots(snapshotSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Returns the shared registry for the given persons file
+     * @param fileName the persons file name
+     * @return the registry for that file
+     */
+    public static synchronized PersonRegistry forFile(String fileName) {
+        String key = new File(fileName).getAbsolutePath();
+        return REGISTRIES.computeIfAbsent(key, k -> new PersonRegistry(new File(k)));
+    }
+
+    /**
+     * Checks if a person with the given ID is registered
+     * @param personID the person ID to check
+     * @return true if the person exists, false otherwise
+     */
+    public boolean contains(String personID) {
+        if (personID == null) {
+            return false;
+        }
+        if (version == null) {
+            synchronized (this) {
+                if (definitelyAbsent(personID)) {
+                    // Definite miss: no need to load or look at the file
+                    return false;
+                }
+            }
+        }
+        return currentVersion().contains(personID);
+    }
+
+    /**
+     * Returns the stored record line for a person
+     * @param personID the person ID to look up
+     * @return the record line (personID|firstName|lastName|address|birthdate|isSuspended), or null if not found
+     */
+    public String getRecord(String personID) {
+        if (personID == null) {
+            return null;
+        }
+        return currentVersion().getRecord(personID);
+    }
+
+    /**
+     * @return number of persons currently in the index
+     */
+    public int size() {
+        return currentVersion().size();
+    }
+
+    /**
+     * @return a copy of the latest record line of every person
+     */
+    public List<String> snapshot() {
+        return currentVersion().records();
+    }
+
+    /**
+     * Pins the latest committed version for consistent reads across several calls; writes made
+     * meanwhile publish newer versions and leave the pinned one unchanged
+     * @return the pinned version; close it when done so it can be reclaimed
+     */
+    public RegistryVersion pin() {
+        return currentVersion().pin();
+    }
+
+    /**
+     * @return number of superseded versions still kept alive by pins
+     */
+    public int getRetainedVersions() {
+        return retained.size();
+    }
+
+    public synchronized StorageMode getStorageMode() { return storageMode; }
+
+    /**
+     * Changes how updates are written. Leaving JOURNALED mode first checkpoints the journal
+     * into the persons file; if that fails the mode is left unchanged.
+     * @param storageMode the new storage mode
+     * @throws IOException if the journal could not be checkpointed
+     */
+    public void setStorageMode(StorageMode storageMode) throws IOException {
+        // Same lock order as checkpoint(): checkpointLock, then the registry
+        synchronized (checkpointLock) {
+            synchronized (this) {
+                if (this.storageMode == StorageMode.JOURNALED && storageMode != StorageMode.JOURNALED && !journal.isEmpty()) {
+                    checkpoint();
+                }
+                this.storageMode = storageMode;
+            }
+        }
+    }
+
+    public synchronized int getCheckpointRecords() { return checkpointRecords; }
+
+    /**
+     * Sets how many journal records trigger a background checkpoint (JOURNALED mode)
+     * @param checkpointRecords number of records, at least 1
+     */
+    public synchronized void setCheckpointRecords(int checkpointRecords) {
+        if (checkpointRecords < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least one record");
+        }
+        this.checkpointRecords = checkpointRecords;
+    }
+
+    public synchronized double getCompactionRatio() { return compactionRatio; }
+
+    /**
+     * Sets the share of dead (superseded) lines above which the file is compacted
+     * @param compactionRatio a value between 0 (exclusive) and 1 (exclusive)
+     */
+    public synchronized void setCompactionRatio(double compactionRatio) {
+        if (compactionRatio <= 0 || compactionRatio >= 1) {
+            throw new IllegalArgumentException("Compaction ratio must be between 0 and 1");
+        }
+        this.compactionRatio = compactionRatio;
+    }
+
+    /**
+     * @return share of lines in the file that are superseded versions or tombstones
+     */
+    public synchronized double deadRatio() {
+        ensureCurrent();
+        return totalLines == 0 ? 0 : (double) (totalLines - records.size()) / totalLines;
+    }
+
+    /**
+     * Appends a new record line to the file and adds it to the index
+     * @param personID the ID of the new record
+     * @param line the record line (without line break)
+     * @throws IOException if the file could not be written
+     */
+    public synchronized void append(String personID, String line) throws IOException {
+        beginWrite();
+        try {
+            if (storageMode == StorageMode.JOURNALED) {
+                journal.append(List.of(line));
+                index(personID, line);
+                publish();
+                scheduleCheckpointIfNeeded();
+                return;
+            }
+            try (FileWriter writer = new FileWriter(file, true)) {
+                writer.write(line + "\n");
+            }
+            PersonMetrics.bytesWritten(line.length() + 1);
+            index(personID, line);
+            totalLines++;
+            markSynced();
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Appends many new records in one buffered write. Records whose ID is already registered,
+     * or repeated earlier in the list, are skipped; the check and the write happen under the
+     * registry lock so no other write can slip in between.
+     * @param lines record lines (without line breaks)
+     * @return for each line, true if it was written, false if it was skipped as a duplicate
+     * @throws IOException if the file could not be written (nothing is added to the index)
+     */
+    public synchronized boolean[] appendAllNew(List<String> lines) throws IOException {
+        beginWrite();
+        try {
+            boolean[] written = new boolean[lines.size()];
+            Map<String, String> added = new HashMap<>();
+            StringBuilder out = new StringBuilder();
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                String personID = idOf(line);
+                if (personID == null || records.containsKey(personID) || added.containsKey(personID)) {
+                    continue;
+                }
+                added.put(personID, line);
+                out.append(line).append('\n');
+                written[i] = true;
+            }
+            if (added.isEmpty()) {
+                return written;
+            }
+
+            if (storageMode == StorageMode.JOURNALED) {
+                journal.append(new ArrayList<>(added.values()));
+            } else {
+                try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true), 1 << 16)) {
+                    writer.write(out.toString());
+                }
+                PersonMetrics.bytesWritten(out.length());
+                totalLines += added.size();
+            }
+            for (Map.Entry<String, String> entry : added.entrySet()) {
+                index(entry.getKey(), entry.getValue());
+            }
+            markSynced();
+            scheduleCheckpointIfNeeded();
+            return written;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Replaces the stored record of a person, either by rewriting the file (REWRITE),
+     * by appending a new version (APPEND_LOG) or by journaling the change (JOURNALED),
+     * depending on the storage mode
+     * @param originalID the ID the record is stored under before the update
+     * @param personID the ID the record is stored under after the update
+     * @param line the new record line
+     * @return true if the record was updated, false if originalID is not registered
+     * @throws IOException if the file could not be read or written
+     */
+    public synchronized boolean update(String originalID, String personID, String line) throws IOException {
+        beginWrite();
+        try {
+            if (!records.containsKey(originalID)) {
+                return false;
+            }
+            if (storageMode == StorageMode.APPEND_LOG) {
+                appendVersion(originalID, personID, line);
+                return true;
+            }
+            if (storageMode == StorageMode.JOURNALED) {
+                journal.append(originalID.equals(personID) ? List.of(line) : List.of(TOMBSTONE + originalID, line));
+                if (!originalID.equals(personID)) {
+                    unindex(originalID);
+                }
+                index(personID, line);
+                publish();
+                scheduleCheckpointIfNeeded();
+                return true;
+            }
+
+            // Read all lines, swapping in the new record
+            List<String> lines = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String current;
+                while ((current = reader.readLine()) != null) {
+                    if (originalID.equals(idOf(current))) {
+                        current = line;
+                    }
+                    lines.add(current);
+                }
+            }
+
+            // Swap in the rewritten file
+            replaceFile(lines);
+            PersonMetrics.bytesRead(knownLength);
+            PersonMetrics.linesScanned(lines.size());
+
+            if (!originalID.equals(personID)) {
+                unindex(originalID);
+            }
+            index(personID, line);
+            markSynced();
+            return true;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Removes a person's record: a tombstone is appended (APPEND_LOG) or journaled (JOURNALED),
+     * or the file is rewritten without it (REWRITE)
+     * @param personID the ID to remove
+     * @return true if the record was removed, false if the ID is not registered
+     * @throws IOException if the file could not be read or written
+     */
+    public synchronized boolean remove(String personID) throws IOException {
+        beginWrite();
+        try {
+            if (!records.containsKey(personID)) {
+                return false;
+            }
+            if (storageMode == StorageMode.JOURNALED) {
+                journal.append(List.of(TOMBSTONE + personID));
+                unindex(personID);
+                publish();
+                scheduleCheckpointIfNeeded();
+                return true;
+            }
+            if (storageMode == StorageMode.APPEND_LOG) {
+                try (FileWriter writer = new FileWriter(file, true)) {
+                    writer.write(TOMBSTONE + personID + "\n");
+                }
+                PersonMetrics.bytesWritten(TOMBSTONE.length() + personID.length() + 1);
+                unindex(personID);
+                totalLines++;
+                markSynced();
+                scheduleCompactionIfNeeded();
+                return true;
+            }
+
+            List<String> lines = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String current;
+                while ((current = reader.readLine()) != null) {
+                    if (!personID.equals(idOf(current))) {
+                        lines.add(current);
+                    }
+                }
+            }
+            replaceFile(lines);
+            PersonMetrics.bytesRead(knownLength);
+            PersonMetrics.linesScanned(lines.size() + 1);
+            unindex(personID);
+            totalLines = lines.size();
+            markSynced();
+            return true;
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Sets the suspension status (last field) of many persons in one pass: one rewrite of the
+     * file (REWRITE), one append of all new versions (APPEND_LOG) or one journal write (JOURNALED). The flag is applied to the
+     * record as it is at the time of the call, so other fields changed meanwhile are kept.
+     * @param suspensions new isSuspended value per personID; IDs that are not registered are skipped
+     * @return number of records updated
+     * @throws IOException if the file could not be read or written
+     */
+    public synchronized int updateSuspensions(Map<String, Boolean> suspensions) throws IOException {
+        beginWrite();
+        try {
+            Map<String, String> changes = new HashMap<>();
+            for (Map.Entry<String, Boolean> entry : suspensions.entrySet()) {
+                String current = records.get(entry.getKey());
+                if (current != null) {
+                    changes.put(entry.getKey(), withSuspension(current, entry.getValue()));
+                }
+            }
+            if (changes.isEmpty()) {
+                return 0;
+            }
+
+            if (storageMode == StorageMode.JOURNALED) {
+                journal.append(new ArrayList<>(changes.values()));
+            } else if (storageMode == StorageMode.APPEND_LOG) {
+                StringBuilder out = new StringBuilder();
+                for (String line : changes.values()) {
+                    out.append(line).append('\n');
+                }
+                try (FileWriter writer = new FileWriter(file, true)) {
+                    writer.write(out.toString());
+                }
+                PersonMetrics.bytesWritten(out.length());
+                totalLines += changes.size();
+            } else {
+                List<String> lines = new ArrayList<>();
+                try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        String replacement = changes.get(idOf(line));
+                        lines.add(replacement != null ? replacement : line);
+                    }
+                }
+                replaceFile(lines);
+                PersonMetrics.bytesRead(knownLength);
+                PersonMetrics.linesScanned(lines.size());
+            }
+
+            records.putAll(changes);
+            pending.putAll(changes);
+            markSynced();
+            scheduleCompactionIfNeeded();
+            scheduleCheckpointIfNeeded();
+            return changes.size();
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Appends a new version of a record (APPEND_LOG mode). If the ID changed, a tombstone
+     * for the old ID is written in the same append.
+     * @param originalID the ID the record was stored under before the update
+     * @param personID the ID the record is stored under now
+     * @param line the new record line
+     * @throws IOException if the file could not be written
+     */
+    public synchronized void appendVersion(String originalID, String personID, String line) throws IOException {
+        beginWrite();
+        try {
+            boolean idChanged = !originalID.equals(personID);
+            StringBuilder out = new StringBuilder();
+            if (idChanged) {
+                out.append(TOMBSTONE).append(originalID).append('\n');
+            }
+            out.append(line).append('\n');
+            try (FileWriter writer = new FileWriter(file, true)) {
+                writer.write(out.toString());
+            }
+            PersonMetrics.bytesWritten(out.length());
+
+            if (idChanged) {
+                unindex(originalID);
+                totalLines++;
+            }
+            index(personID, line);
+            totalLines++;
+            markSynced();
+            scheduleCompactionIfNeeded();
+        } finally {
+            endWrite();
+        }
+    }
+
+    /**
+     * Rewrites the file so it holds only the latest version of each record.
+     * Writers are only blocked while lines appended during the rewrite are copied over
+     * and the compacted file is swapped in.
+     * @throws IOException if the compacted file could not be written
+     */
+    public void compact() throws IOException {
+        List<String> live;
+        long snapshotLength;
+        synchronized (this) {
+            ensureCurrent();
+            live = new ArrayList<>(records.values());
+            snapshotLength = file.length();
+        }
+
+        Path target = file.toPath().toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".compact");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp)) {
+                for (String line : live) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+            PersonMetrics.bytesWritten(Files.size(temp));
+
+            synchronized (this) {
+                long currentLength = file.length();
+                if (currentLength < snapshotLength) {
+                    // File was replaced underneath us - give up and re-read it
+                    reload();
+                    return;
+                }
+                int carriedLines = 0;
+                if (currentLength > snapshotLength) {
+                    // Carry over versions appended while the compacted copy was being written
+                    byte[] tail = new byte[(int) (currentLength - snapshotLength)];
+                    try (RandomAccessFile source = new RandomAccessFile(file, "r")) {
+                        source.seek(snapshotLength);
+                        source.readFully(tail);
+                    }
+                    Files.write(temp, tail, StandardOpenOption.APPEND);
+                    for (byte b : tail) {
+                        if (b == '\n') {
+                            carriedLines++;
+                        }
+                    }
+                }
+                writing = true;
+                try {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    totalLines = live.size() + carriedLines;
+                    markSynced();
+                } finally {
+                    endWrite();
+                }
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes the current records to the persons file and drops the journal records it now holds.
+     * The journal is rotated first, so writers are only blocked while the new file is swapped in.
+     * @throws IOException if the checkpoint could not be written (the journal is kept)
+     */
+    public void checkpoint() throws IOException {
+        synchronized (checkpointLock) {
+            List<String> live;
+            synchronized (this) {
+                ensureCurrent();
+                live = new ArrayList<>(records.values());
+                journal.rotate();
+            }
+            Path temp = writeSnapshot(live);
+            try {
+                synchronized (this) {
+                    writing = true;
+                    try {
+                        Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                        journal.dropRotated();
+                        totalLines = live.size();
+                        markSynced();
+                    } finally {
+                        endWrite();
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Drops the index and reads the whole file again (replaying the journal, if any)
+     */
+    public synchronized void reload() {
+        records.clear();
+        pending.clear();
+        rebuildVersion = true;
+        totalLines = 0;
+        IndexSnapshot.Records snapshot = journal.isEmpty() ? IndexSnapshot.loadRecords(file.toPath()) : null;
+        if (snapshot != null) {
+            for (String line : snapshot.lines) {
+                records.put(idOf(line), line);
+            }
+            totalLines = (int) snapshot.totalLines;
+            snapshotLength = file.length();
+            snapshotModified = file.lastModified();
+        } else if (file.exists()) {
+            PersonMetrics.bytesRead(file.length());
+            try {
+                // Lines are split out and decoded in parallel, then applied in file order
+                List<String> lines = MappedRecordFile.open(file.toPath()).lines();
+                PersonMetrics.linesScanned(lines.size());
+                for (String line : lines) {
+                    if (line.startsWith(TOMBSTONE)) {
+                        records.remove(line.substring(TOMBSTONE.length()));
+                        totalLines++;
+                        continue;
+                    }
+                    String id = idOf(line);
+                    if (id != null) {
+                        // Later lines win, same as the file scans did
+                        records.put(id, line);
+                        totalLines++;
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Error loading person registry: " + e.getMessage());
+                records.clear();
+            }
+        }
+        replayJournal();
+        loaded = true;
+        markSynced();
+        if (secondary != null) {
+            secondary.rebuild(records);
+        }
+        buildBloomFilter();
+        saveBloomFilterQuietly();
+    }
+
+    /**
+     * Saves the index as a binary snapshot next to the persons file, unless the saved one is still current.
+     * Nothing is saved while the journal holds changes that are not in the persons file yet.
+     * @throws IOException if the snapshot could not be written
+     */
+    public synchronized void saveSnapshot() throws IOException {
+        if (!loaded || !file.exists() || !journal.isEmpty()) {
+            return;
+        }
+        ensureCurrent();
+        if (knownLength == snapshotLength && knownModified == snapshotModified) {
+            return;
+        }
+        IndexSnapshot.saveRecords(file.toPath(), knownLength, knownModified, totalLines, records.values());
+        snapshotLength = knownLength;
+        snapshotModified = knownModified;
+    }
+
+    /**
+     * Saves a snapshot at a fixed interval, replacing any earlier schedule
+     * @param period time between snapshots
+     * @param unit unit of the period
+     */
+    public synchronized void startSnapshots(long period, TimeUnit unit) {
+        stopSnapshots();
+        snapshotJob = SNAPSHOTTER.scheduleAtFixedRate(this::saveSnapshotQuietly, period, period, unit);
+    }
+
+    /**
+     * Stops the periodic snapshots, if running
+     */
+    public synchronized void stopSnapshots() {
+        if (snapshotJob != null) {
+            snapshotJob.cancel(false);
+            snapshotJob = null;
+        }
+    }
+
+    /**
+     * Finds persons by last name (case-insensitive)
+     * @param lastName the last name, or its start if prefix is true
+     * @param prefix true to match every last name starting with the given text
+     * @return the matching record lines, sorted by last name then personID
+     */
+    public synchronized List<String> findByLastName(String lastName, boolean prefix) {
+        PersonSecondaryIndex index = secondaryIndex();
+        return recordsOf(prefix ? index.byLastNamePrefix(lastName) : index.byLastName(lastName));
+    }
+
+    /**
+     * Finds persons by suburb, the city part of the address (case-insensitive)
+     * @param suburb the suburb, or its start if prefix is true
+     * @param prefix true to match every suburb starting with the given text
+     * @return the matching record lines, sorted by suburb then personID
+     */
+    public synchronized List<String> findBySuburb(String suburb, boolean prefix) {
+        PersonSecondaryIndex index = secondaryIndex();
+        return recordsOf(prefix ? index.bySuburbPrefix(suburb) : index.bySuburb(suburb));
+    }
+
+    // Builds the secondary indexes on first use; from then on every write keeps them current
+    private PersonSecondaryIndex secondaryIndex() {
+        ensureCurrent();
+        if (secondary == null) {
+            secondary = new PersonSecondaryIndex();
+            secondary.rebuild(records);
+        }
+        return secondary;
+    }
+
+    private List<String> recordsOf(List<String> personIDs) {
+        List<String> lines = new ArrayList<>(personIDs.size());
+        for (String personID : personIDs) {
+            lines.add(records.get(personID));
+        }
+        return lines;
+    }
+
+    public synchronized double getBloomFalsePositiveRate() { return bloomFalsePositiveRate; }
+
+    /**
+     * Sets the Bloom filter false positive rate and rebuilds the filter with it
+     * @param falsePositiveRate a value between 0 and 1 (exclusive)
+     */
+    public synchronized void setBloomFalsePositiveRate(double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        this.bloomFalsePositiveRate = falsePositiveRate;
+        if (loaded) {
+            buildBloomFilter();
+        }
+    }
+
+    /**
+     * Rebuilds the Bloom filter from the index (e.g. to drop IDs that no longer exist)
+     */
+    public synchronized void rebuildBloomFilter() {
+        ensureCurrent();
+        buildBloomFilter();
+    }
+
+    private void buildBloomFilter() {
+        bloom = new PersonBloomFilter(Math.max(MIN_BLOOM_CAPACITY, records.size() * 2), bloomFalsePositiveRate);
+        for (String personID : records.keySet()) {
+            bloom.add(personID);
+        }
+        bloomLength = knownLength;
+        bloomModified = knownModified;
+        bloomDirty = true;
+    }
+
+    /**
+     * Saves the Bloom filter next to the persons file, if it has changed since it was last saved
+     * @throws IOException if the filter could not be written
+     */
+    public synchronized void saveBloomFilter() throws IOException {
+        if (bloom != null && bloomDirty && file.exists()
+                && bloomLength == file.length() && bloomModified == file.lastModified()) {
+            bloom.save(bloomFile(), bloomLength, bloomModified);
+            bloomDirty = false;
+        }
+    }
+
+    /**
+     * @return true if the persons file alone holds the latest version of every record, i.e. it can be
+     *         read line by line without the index (REWRITE mode with nothing waiting in the journal)
+     */
+    synchronized boolean fileHoldsLatest() {
+        return storageMode == StorageMode.REWRITE && journal.isEmpty();
+    }
+
+    /**
+     * @return true once the index has been loaded from the file
+     */
+    synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    // True only when a filter matching the current file says the ID was never added
+    private boolean definitelyAbsent(String personID) {
+        if (!loaded && !journal.isEmpty()) {
+            // The saved filter may predate IDs that so far only exist in the journal
+            return false;
+        }
+        if (bloom == null && !bloomLoadAttempted) {
+            bloomLoadAttempted = true;
+            bloom = PersonBloomFilter.load(bloomFile(), file.length(), file.lastModified());
+            if (bloom != null) {
+                bloomLength = file.length();
+                bloomModified = file.lastModified();
+            }
+        }
+        if (bloom == null || file.length() != bloomLength || file.lastModified() != bloomModified) {
+            return false;
+        }
+        return !bloom.mightContain(personID);
+    }
+
+    // Adds a record to the index, its ID to the Bloom filter and its keys to the secondary indexes
+    private void index(String personID, String line) {
+        String previous = records.put(personID, line);
+        pending.put(personID, line);
+        if (secondary != null) {
+            if (previous != null) {
+                secondary.remove(personID, previous);
+            }
+            secondary.add(personID, line);
+        }
+        if (bloom != null) {
+            bloom.add(personID);
+            bloomDirty = true;
+            if (bloom.isOverCapacity()) {
+                buildBloomFilter();
+            }
+        }
+    }
+
+    // Removes a record from the index and the secondary indexes
+    private void unindex(String personID) {
+        String previous = records.remove(personID);
+        pending.put(personID, null);
+        if (secondary != null && previous != null) {
+            secondary.remove(personID, previous);
+        }
+    }
+
+    private Path bloomFile() {
+        return file.toPath().resolveSibling(file.getName() + ".bloom");
+    }
+
+    private synchronized void saveSnapshotQuietly() {
+        try {
+            saveSnapshot();
+        } catch (IOException e) {
+            System.out.println("Error saving person snapshot: " + e.getMessage());
+        }
+    }
+
+    // Shutdown hook: saves every live registry whose persons file's directory still exists
+    private static void saveLive() {
+        List<PersonRegistry> live;
+        synchronized (LIVE) {
+            live = new ArrayList<>(LIVE);
+        }
+        saveAll(live, ShutdownSaver.TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Saves the filters and snapshots of the given registries, skipping those still busy at the timeout
+     * @param registries the registries to save
+     * @param timeoutMillis how long to wait for all of them
+     * @return number of registries skipped
+     */
+    static int saveAll(List<PersonRegistry> registries, long timeoutMillis) {
+        List<Runnable> saves = new ArrayList<>();
+        for (PersonRegistry registry : registries) {
+            if (registry.file.getAbsoluteFile().getParentFile().isDirectory()) {
+                saves.add(registry::saveOnShutdown);
+            }
+        }
+        return ShutdownSaver.saveAll("persons-index-save", saves, timeoutMillis);
+    }
+
+    private synchronized void saveOnShutdown() {
+        saveBloomFilterQuietly();
+        saveSnapshotQuietly();
+    }
+
+    private synchronized void saveBloomFilterQuietly() {
+        try {
+            saveBloomFilter();
+        } catch (IOException e) {
+            System.out.println("Error saving bloom filter: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the suspension status (last field) of a record line
+     * @param line the record line
+     * @param suspended the new isSuspended value
+     * @return the record line with the given isSuspended value
+     */
+    static String withSuspension(String line, boolean suspended) {
+        return line.substring(0, line.lastIndexOf('|') + 1) + suspended;
+    }
+
+    /**
+     * Extracts the personID (first field) from a record line
+     * @param line the record line
+     * @return the personID, or null for an empty line
+     */
+    static String idOf(String line) {
+        if (line == null || line.isEmpty()) {
+            return null;
+        }
+        int end = line.indexOf('|');
+        return end < 0 ? line : line.substring(0, end);
+    }
+
+    // Applies journal records written after the last checkpoint on top of the loaded file
+    private void replayJournal() {
+        if (journal.isEmpty()) {
+            return;
+        }
+        try {
+            journal.replay(payload -> {
+                if (payload.startsWith(TOMBSTONE)) {
+                    records.remove(payload.substring(TOMBSTONE.length()));
+                } else if (idOf(payload) != null) {
+                    records.put(idOf(payload), payload);
+                }
+            });
+            if (storageMode != StorageMode.JOURNALED) {
+                // Left over from a journaled run: fold it into the file before writing to it directly
+                Path temp = writeSnapshot(new ArrayList<>(records.values()));
+                Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                journal.clear();
+                totalLines = records.size();
+            }
+        } catch (IOException e) {
+            System.out.println("Error replaying person journal: " + e.getMessage());
+        }
+    }
+
+    // Writes the records to a temporary file next to the persons file and forces it to disk
+    private Path writeSnapshot(List<String> live) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".checkpoint");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp)) {
+            for (String line : live) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        PersonMetrics.bytesWritten(Files.size(temp));
+        return temp;
+    }
+
+    private void scheduleCheckpointIfNeeded() {
+        if (storageMode != StorageMode.JOURNALED || checkpointScheduled || journal.records() < checkpointRecords) {
+            return;
+        }
+        checkpointScheduled = true;
+        COMPACTOR.execute(() -> {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                System.out.println("Error checkpointing person journal: " + e.getMessage());
+            } finally {
+                synchronized (this) {
+                    checkpointScheduled = false;
+                }
+            }
+        });
+    }
+
+    // The latest committed version; only takes the lock when the file changed outside this registry
+    private RegistryVersion currentVersion() {
+        RegistryVersion current = version;
+        if (current != null && (writing || current.describes(file.length(), file.lastModified()))) {
+            // While a write holds the lock the file may be mid-change; the version is the committed state
+            return current;
+        }
+        synchronized (this) {
+            ensureCurrent();
+            return version;
+        }
+    }
+
+    // Entry of every write: brings the index up to date and tells readers the file is about to change.
+    // Cleared by publish() and, so a failed write does not leave readers on the old version, by endWrite().
+    private void beginWrite() {
+        ensureCurrent();
+        writing = true;
+    }
+
+    // Exit of every write (in a finally block): readers check the file again
+    private void endWrite() {
+        writing = false;
+    }
+
+    // Publishes the committed records as a new version and lets readers check the file again
+    private void publish() {
+        RegistryVersion previous = version;
+        RegistryVersion next = previous == null || rebuildVersion
+            ? RegistryVersion.of(this, previous == null ? 1 : previous.getNumber() + 1, records)
+            : previous.next(pending, records);
+        next.describe(knownLength, knownModified);
+        pending.clear();
+        rebuildVersion = false;
+        version = next;
+        writing = false;
+        if (previous != null) {
+            retained.add(previous);
+            if (!previous.supersede()) {
+                retained.remove(previous);
+            }
+        }
+    }
+
+    // Called when the last pin of a superseded version is released
+    void released(RegistryVersion old) {
+        retained.remove(old);
+    }
+
+    // Writes the lines to a temporary file and moves it over the persons file in one step
+    private void replaceFile(List<String> lines) throws IOException {
+        Path temp = writeSnapshot(lines);
+        try {
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Reload if the file was changed outside of Person since we last looked
+    private void ensureCurrent() {
+        if (!loaded || file.length() != knownLength || file.lastModified() != knownModified) {
+            reload();
+        }
+    }
+
+    private void scheduleCompactionIfNeeded() {
+        if (storageMode != StorageMode.APPEND_LOG || compactionScheduled) {
+            return;
+        }
+        if ((double) (totalLines - records.size()) / totalLines > compactionRatio) {
+            compactionScheduled = true;
+            COMPACTOR.execute(() -> {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    System.out.println("Error compacting person file: " + e.getMessage());
+                } finally {
+                    synchronized (this) {
+                        compactionScheduled = false;
+                    }
+                }
+            });
+        }
+    }
+
+    private void markSynced() {
+        boolean bloomCurrent = bloom != null && bloomLength == knownLength && bloomModified == knownModified;
+        knownLength = file.length();
+        knownModified = file.lastModified();
+        if (bloomCurrent) {
+            // Our own write: the filter already has every ID in the file
+            bloomLength = knownLength;
+            bloomModified = knownModified;
+        }
+        publish();
+    }
+}
@@ -0,0 +1,143 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Secondary indexes over the person records: last name and suburb (the city part of the address).
+ * Keys are compared case-insensitively and kept sorted, so both exact and prefix lookups are
+ * a range of a sorted map instead of a scan of every record.
+ * Kept current by PersonRegistry as records are added, changed and removed.
+ */
+public class PersonSecondaryIndex {
+    // Field positions in a record line (personID|firstName|lastName|number|street|city|state|country|birthdate|isSuspended)
+    static final int LAST_NAME_FIELD = 2;
+    static final int SUBURB_FIELD = 5;
+
+    private final TreeMap<String, Set<String>> byLastName = new TreeMap<>();
+    private final TreeMap<String, Set<String>> bySuburb = new TreeMap<>();
+
+    /**
+     * Rebuilds both indexes from the given records
+     * @param records record line per personID
+     */
+    public void rebuild(Map<String, String> records) {
+        byLastName.clear();
+        bySuburb.clear();
+        for (Map.Entry<String, String> entry : records.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Adds a record to the indexes
+     * @param personID the record's ID
+     * @param line the record line
+     */
+    public void add(String personID, String line) {
+        put(byLastName, field(line, LAST_NAME_FIELD), personID);
+        put(bySuburb, field(line, SUBURB_FIELD), personID);
+    }
+
+    /**
+     * Removes a record from the indexes
+     * @param personID the record's ID
+     * @param line the record line as it was indexed
+     */
+    public void remove(String personID, String line) {
+        take(byLastName, field(line, LAST_NAME_FIELD), personID);
+        take(bySuburb, field(line, SUBURB_FIELD), personID);
+    }
+
+    /**
+     * @param lastName the last name (any case)
+     * @return IDs of persons with exactly that last name, sorted
+     */
+    public List<String> byLastName(String lastName) {
+        return exact(byLastName, lastName);
+    }
+
+    /**
+     * @param prefix start of the last name (any case)
+     * @return IDs of persons whose last name starts with the prefix, sorted by last name then ID
+     */
+    public List<String> byLastNamePrefix(String prefix) {
+        return prefix(byLastName, prefix);
+    }
+
+    /**
+     * @param suburb the suburb (any case)
+     * @return IDs of persons living in that suburb, sorted
+     */
+    public List<String> bySuburb(String suburb) {
+        return exact(bySuburb, suburb);
+    }
+
+    /**
+     * @param prefix start of the suburb (any case)
+     * @return IDs of persons whose suburb starts with the prefix, sorted by suburb then ID
+     */
+    public List<String> bySuburbPrefix(String prefix) {
+        return prefix(bySuburb, prefix);
+    }
+
+    private static List<String> exact(TreeMap<String, Set<String>> index, String value) {
+        Set<String> ids = index.get(key(value));
+        return ids == null ? new ArrayList<>() : new ArrayList<>(ids);
+    }
+
+    private static List<String> prefix(TreeMap<String, Set<String>> index, String prefix) {
+        String from = key(prefix);
+        // Every key starting with the prefix sorts below prefix + the highest char
+        NavigableMap<String, Set<String>> range = index.subMap(from, true, from + Character.MAX_VALUE, false);
+        List<String> ids = new ArrayList<>();
+        for (Collection<String> set : range.values()) {
+            ids.addAll(set);
+        }
+        return ids;
+    }
+
+    private static void put(TreeMap<String, Set<String>> index, String value, String personID) {
+        if (value != null) {
+            index.computeIfAbsent(key(value), k -> new TreeSet<>()).add(personID);
+        }
+    }
+
+    private static void take(TreeMap<String, Set<String>> index, String value, String personID) {
+        if (value == null) {
+            return;
+        }
+        String key = key(value);
+        Set<String> ids = index.get(key);
+        if (ids != null && ids.remove(personID) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Extracts one pipe-separated field of a record line without splitting the whole line
+     * @param line the record line
+     * @param field the field position (0-based)
+     * @return the field, or null if the line has fewer fields
+     */
+    static String field(String line, int field) {
+        int start = 0;
+        for (int i = 0; i < field; i++) {
+            start = line.indexOf('|', start) + 1;
+            if (start == 0) {
+                return null;
+            }
+        }
+        int end = line.indexOf('|', start);
+        return end < 0 ? line.substring(start) : line.substring(start, end);
+    }
+}
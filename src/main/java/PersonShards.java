@@ -0,0 +1,420 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Persons storage split across N files by a hash of the personID.
+ * Shard i of N lives in {@code <file>.shard-<i>-of-<N>} with its own PersonRegistry, so writes to
+ * different shards never wait on each other, and scans, bulk imports and suspension updates run on
+ * all shards in parallel. The shard count is kept in {@code <file>.shards}; without that file the
+ * persons file itself is the only shard, and everything behaves as before sharding.
+ *
+ * Change the shard count with {@link #reshard(String, int)} (or {@code java PersonShards <file> <N>})
+ * while nothing else writes to the files.
+ */
+public class PersonShards {
+    // Shard layout per persons file (keyed by absolute path)
+    private static final Map<String, PersonShards> SHARDS = new HashMap<>();
+
+    private final String personFile;
+    private final List<String> shardFiles;
+    private final List<PersonRegistry> registries;
+
+    private PersonShards(String personFile, List<String> shardFiles) {
+        this.personFile = personFile;
+        this.shardFiles = Collections.unmodifiableList(shardFiles);
+        List<PersonRegistry> list = new ArrayList<>(shardFiles.size());
+        for (String shardFile : shardFiles) {
+            list.add(PersonRegistry.forFile(shardFile));
+        }
+        this.registries = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Returns the shard layout of a persons file
+     * @param personFile the persons file name
+     * @return its shards (a single shard, the file itself, if it is not sharded)
+     */
+    public static synchronized PersonShards forFile(String personFile) {
+        String key = Paths.get(personFile).toAbsolutePath().toString();
+        PersonShards shards = SHARDS.get(key);
+        if (shards == null) {
+            shards = new PersonShards(key, shardFiles(key, readShardCount(key)));
+            SHARDS.put(key, shards);
+        }
+        return shards;
+    }
+
+    /**
+     * @return number of shards
+     */
+    public int count() {
+        return registries.size();
+    }
+
+    /**
+     * @return the shard file names, in shard order
+     */
+    public List<String> files() {
+        return shardFiles;
+    }
+
+    /**
+     * @return the registries of all shards, in shard order
+     */
+    public List<PersonRegistry> registries() {
+        return registries;
+    }
+
+    /**
+     * @param personID a person ID
+     * @return the registry of the shard the ID belongs to
+     */
+    public PersonRegistry registryFor(String personID) {
+        return registries.get(shardOf(personID, registries.size()));
+    }
+
+    public boolean contains(String personID) {
+        return personID != null && registryFor(personID).contains(personID);
+    }
+
+    public String getRecord(String personID) {
+        return personID == null ? null : registryFor(personID).getRecord(personID);
+    }
+
+    /**
+     * @return number of live records across all shards
+     */
+    public int size() {
+        return registries.stream().mapToInt(PersonRegistry::size).sum();
+    }
+
+    /**
+     * @return the live records of all shards, read in parallel and concatenated in shard order
+     */
+    public List<String> snapshot() {
+        return registries.parallelStream()
+            .flatMap(registry -> registry.snapshot().stream())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Records by last name from every shard's secondary index (see PersonRegistry.findByLastName)
+     * @param lastName the last name, or its start if prefix is true
+     * @param prefix true to match the start of the last name
+     * @return matching record lines
+     */
+    public List<String> findByLastName(String lastName, boolean prefix) {
+        return registries.parallelStream()
+            .flatMap(registry -> registry.findByLastName(lastName, prefix).stream())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Records by suburb from every shard's secondary index (see PersonRegistry.findBySuburb)
+     * @param suburb the suburb, or its start if prefix is true
+     * @param prefix true to match the start of the suburb
+     * @return matching record lines
+     */
+    public List<String> findBySuburb(String suburb, boolean prefix) {
+        return registries.parallelStream()
+            .flatMap(registry -> registry.findBySuburb(suburb, prefix).stream())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Appends a new record to its shard
+     * @param personID the ID of the new record
+     * @param line the record line
+     * @throws IOException if the shard could not be written
+     */
+    public void append(String personID, String line) throws IOException {
+        registryFor(personID).append(personID, line);
+    }
+
+    /**
+     * Appends many new records, each shard's share in one write, all shards in parallel.
+     * Records whose ID is already registered, or repeated earlier in the list, are skipped.
+     * @param lines record lines
+     * @return for each line, true if it was written, false if it was skipped as a duplicate
+     * @throws IOException if a shard could not be written (other shards may have been written)
+     */
+    public boolean[] appendAllNew(List<String> lines) throws IOException {
+        if (registries.size() == 1) {
+            return registries.get(0).appendAllNew(lines);
+        }
+        List<List<Integer>> positions = new ArrayList<>();
+        for (int i = 0; i < registries.size(); i++) {
+            positions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            String personID = PersonRegistry.idOf(lines.get(i));
+            positions.get(personID == null ? 0 : shardOf(personID, registries.size())).add(i);
+        }
+        boolean[] written = new boolean[lines.size()];
+        forEachShard(shard -> {
+            List<Integer> indexes = positions.get(shard);
+            if (indexes.isEmpty()) {
+                return;
+            }
+            List<String> part = new ArrayList<>(indexes.size());
+            for (int index : indexes) {
+                part.add(lines.get(index));
+            }
+            boolean[] result = registries.get(shard).appendAllNew(part);
+            for (int i = 0; i < result.length; i++) {
+                written[indexes.get(i)] = result[i];
+            }
+        });
+        return written;
+    }
+
+    /**
+     * Replaces a person's record; if the new ID belongs to another shard, the record is added
+     * there first and then removed from the old shard. If the append fails, the old shard is left
+     * as it was; if the removal fails, the appended record is removed again before the error is
+     * thrown. The two shards are separate files, so a crash between the append and the removal
+     * leaves the person in both, under the old and the new ID, until the old record is removed.
+     * @param originalID the ID the record is stored under before the update
+     * @param personID the ID the record is stored under after the update
+     * @param line the new record line
+     * @return true if the record was updated, false if originalID is not registered
+     * @throws IOException if a shard could not be read or written
+     */
+    public boolean update(String originalID, String personID, String line) throws IOException {
+        PersonRegistry from = registryFor(originalID);
+        PersonRegistry to = registryFor(personID);
+        if (from == to) {
+            return from.update(originalID, personID, line);
+        }
+        if (!from.contains(originalID)) {
+            return false;
+        }
+        to.append(personID, line);
+        boolean removed;
+        try {
+            removed = from.remove(originalID);
+        } catch (IOException | RuntimeException e) {
+            undoAppend(to, personID, e);
+            throw e;
+        }
+        if (!removed) {
+            // Removed by someone else meanwhile: the person is gone, so the new record must go too
+            undoAppend(to, personID, null);
+        }
+        return removed;
+    }
+
+    // Removes a record appended by a cross-shard update that could not be completed
+    private static void undoAppend(PersonRegistry to, String personID, Exception cause) throws IOException {
+        try {
+            to.remove(personID);
+        } catch (IOException | RuntimeException e) {
+            if (cause == null) {
+                throw e;
+            }
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Sets the suspension status of many persons, each shard's share in one pass, all shards in parallel
+     * @param suspensions new isSuspended value per personID; IDs that are not registered are skipped
+     * @return number of records updated
+     * @throws IOException if a shard could not be read or written
+     */
+    public int updateSuspensions(Map<String, Boolean> suspensions) throws IOException {
+        if (registries.size() == 1) {
+            return registries.get(0).updateSuspensions(suspensions);
+        }
+        List<Map<String, Boolean>> parts = new ArrayList<>();
+        for (int i = 0; i < registries.size(); i++) {
+            parts.add(new HashMap<>());
+        }
+        for (Map.Entry<String, Boolean> entry : suspensions.entrySet()) {
+            parts.get(shardOf(entry.getKey(), registries.size())).put(entry.getKey(), entry.getValue());
+        }
+        int[] updated = new int[registries.size()];
+        forEachShard(shard -> {
+            if (!parts.get(shard).isEmpty()) {
+                updated[shard] = registries.get(shard).updateSuspensions(parts.get(shard));
+            }
+        });
+        return IntStream.of(updated).sum();
+    }
+
+    /**
+     * Sets the storage mode of every shard
+     * @param storageMode the storage mode
+     * @throws IOException if a shard's journal could not be checkpointed
+     */
+    public void setStorageMode(StorageMode storageMode) throws IOException {
+        for (PersonRegistry registry : registries) {
+            registry.setStorageMode(storageMode);
+        }
+    }
+
+    /**
+     * Moves all records of a persons file into the given number of shards. With 1 shard the records
+     * go back into the persons file itself. The new shard files are complete before the shard count
+     * is switched, and the old ones are only deleted after that.
+     * Must not run while other threads or processes write to the files.
+     * @param personFile the persons file name
+     * @param count the new number of shards (at least 1)
+     * @return the new shard layout
+     * @throws IOException if the records could not be moved
+     */
+    public static synchronized PersonShards reshard(String personFile, int count) throws IOException {
+        if (count < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1");
+        }
+        String key = Paths.get(personFile).toAbsolutePath().toString();
+        PersonShards current = forFile(key);
+        if (current.count() == count) {
+            return current;
+        }
+
+        // Fold journals into their files so the records below are all that is left to move
+        for (PersonRegistry registry : current.registries) {
+            if (registry.getStorageMode() == StorageMode.JOURNALED) {
+                registry.checkpoint();
+            }
+        }
+        List<String> records = current.snapshot();
+        List<String> targets = shardFiles(key, count);
+        List<List<String>> parts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            parts.add(new ArrayList<>());
+        }
+        for (String line : records) {
+            parts.get(shardOf(PersonRegistry.idOf(line), count)).add(line);
+        }
+
+        // Write each new shard next to its target and move it into place
+        IntStream.range(0, count).parallel().forEach(shard -> {
+            try {
+                Path target = Paths.get(targets.get(shard));
+                Path temp = target.resolveSibling(target.getFileName() + ".reshard");
+                Files.write(temp, parts.get(shard));
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        Path manifest = manifest(key);
+        if (count == 1) {
+            Files.deleteIfExists(manifest);
+        } else {
+            Path temp = manifest.resolveSibling(manifest.getFileName() + ".tmp");
+            Files.writeString(temp, Integer.toString(count));
+            Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        for (String old : current.shardFiles) {
+            if (targets.contains(old)) {
+                continue;
+            }
+            if (old.equals(key)) {
+                // The persons file stays as the place the manifest is found next to; it no longer holds records
+                Files.write(Paths.get(old), new byte[0]);
+            } else {
+                Files.deleteIfExists(Paths.get(old));
+            }
+        }
+
+        PersonShards shards = new PersonShards(key, targets);
+        // New shard files get new registries; they keep the storage mode the old shards had
+        StorageMode mode = current.registries.get(0).getStorageMode();
+        for (PersonRegistry registry : shards.registries) {
+            registry.setStorageMode(mode);
+            registry.reload();
+        }
+        SHARDS.put(key, shards);
+        return shards;
+    }
+
+    /**
+     * Reshards a persons file: {@code java PersonShards <personFile> <shardCount>}
+     * @param args the persons file and the new shard count
+     * @throws IOException if the records could not be moved
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: java PersonShards <personFile> <shardCount>");
+            return;
+        }
+        PersonShards shards = reshard(args[0], Integer.parseInt(args[1]));
+        System.out.println("Resharded " + args[0] + " into " + shards.count() + " shard(s) holding " + shards.size() + " persons");
+    }
+
+    /**
+     * @param personID a person ID
+     * @param count number of shards
+     * @return the shard the ID belongs to (String.hashCode is specified, so this is stable across JVMs)
+     */
+    static int shardOf(String personID, int count) {
+        return Math.floorMod(personID.hashCode(), count);
+    }
+
+    private interface ShardAction {
+        void run(int shard) throws IOException;
+    }
+
+    private void forEachShard(ShardAction action) throws IOException {
+        try {
+            IntStream.range(0, registries.size()).parallel().forEach(shard -> {
+                try {
+                    action.run(shard);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static List<String> shardFiles(String personFile, int count) {
+        List<String> files = new ArrayList<>(count);
+        if (count == 1) {
+            files.add(personFile);
+            return files;
+        }
+        for (int i = 0; i < count; i++) {
+            files.add(personFile + ".shard-" + i + "-of-" + count);
+        }
+        return files;
+    }
+
+    private static int readShardCount(String personFile) {
+        Path manifest = manifest(personFile);
+        if (!Files.exists(manifest)) {
+            return 1;
+        }
+        try {
+            return Integer.parseInt(Files.readString(manifest).trim());
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalStateException("Unreadable shard manifest " + manifest + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Path manifest(String personFile) {
+        return Paths.get(personFile + ".shards");
+    }
+
+    @Override
+    public String toString() {
+        return "PersonShards[" + personFile + ", " + count() + " shard(s)]";
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ * Validation rules for person IDs, addresses, birthdates and whole person records.
+ * Every check walks the characters once over a CharSequence (or a range of one) and allocates
+ * nothing: no regex, no substring, no Calendar. This makes it cheap enough for bulk imports,
+ * and the typed ValidationResult says which rule failed.
+ */
+public final class PersonValidator {
+    private static final int MIN_BIRTH_YEAR = 1900;
+    private static final int MAX_BIRTH_YEAR = 2025;
+    private static final String STATE = "Victoria";
+
+    private PersonValidator() {
+    }
+
+    /**
+     * Validates a person ID: exactly 10 characters, first two digits 2-9, at least two special
+     * characters between the 3rd and 8th character, last two uppercase letters A-Z
+     * @param id the person ID
+     * @return VALID or INVALID_ID
+     */
+    public static ValidationResult validateID(CharSequence id) {
+        return id == null ? ValidationResult.INVALID_ID : validateID(id, 0, id.length());
+    }
+
+    /**
+     * Validates a person ID stored in value[start, end)
+     * @param value the text holding the person ID
+     * @param start index of the first character
+     * @param end index after the last character
+     * @return VALID or INVALID_ID
+     */
+    public static ValidationResult validateID(CharSequence value, int start, int end) {
+        if (end - start != 10) {
+            return ValidationResult.INVALID_ID;
+        }
+        // First two characters should be digits between 2 and 9
+        if (!isDigitBetween(value.charAt(start), '2', '9') || !isDigitBetween(value.charAt(start + 1), '2', '9')) {
+            return ValidationResult.INVALID_ID;
+        }
+        // At least two special characters between characters 3 and 8
+        int specialCount = 0;
+        for (int i = start + 2; i < start + 8; i++) {
+            if (!Character.isLetterOrDigit(value.charAt(i))) {
+                specialCount++;
+            }
+        }
+        if (specialCount < 2) {
+            return ValidationResult.INVALID_ID;
+        }
+        // Last two characters should be uppercase letters (A-Z)
+        if (!isUpperAsciiLetter(value.charAt(start + 8)) || !isUpperAsciiLetter(value.charAt(start + 9))) {
+            return ValidationResult.INVALID_ID;
+        }
+        return ValidationResult.VALID;
+    }
+
+    /**
+     * Validates an address: Street Number|Street|City|Victoria|Country
+     * @param address the address
+     * @return VALID or INVALID_ADDRESS
+     */
+    public static ValidationResult validateAddress(CharSequence address) {
+        return address == null ? ValidationResult.INVALID_ADDRESS : validateAddress(address, 0, address.length());
+    }
+
+    /**
+     * Validates an address stored in value[start, end)
+     * @param value the text holding the address
+     * @param start index of the first character
+     * @param end index after the last character
+     * @return VALID or INVALID_ADDRESS
+     */
+    public static ValidationResult validateAddress(CharSequence value, int start, int end) {
+        int field = 0;      // 0 number, 1 street, 2 city, 3 state, 4 country
+        int fieldStart = start;
+        for (int i = start; i <= end; i++) {
+            boolean atEnd = i == end;
+            char c = atEnd ? '|' : value.charAt(i);
+            if (c != '|') {
+                if (field == 0 && !isDigitBetween(c, '0', '9')) {
+                    return ValidationResult.INVALID_ADDRESS;
+                }
+                continue;
+            }
+            int length = i - fieldStart;
+            if (length == 0) {
+                return ValidationResult.INVALID_ADDRESS;
+            }
+            if (field == 3 && !regionEquals(value, fieldStart, i, STATE)) {
+                return ValidationResult.INVALID_ADDRESS;
+            }
+            if (atEnd != (field == 4)) {
+                // Too few or too many fields
+                return ValidationResult.INVALID_ADDRESS;
+            }
+            field++;
+            fieldStart = i + 1;
+        }
+        return ValidationResult.VALID;
+    }
+
+    /**
+     * Validates a birthdate: DD-MM-YYYY, a real calendar date with a year between 1900 and 2025
+     * @param birthdate the birthdate
+     * @return VALID or the birthdate rule that failed
+     */
+    public static ValidationResult validateBirthdate(CharSequence birthdate) {
+        return birthdate == null ? ValidationResult.INVALID_BIRTHDATE_FORMAT : validateBirthdate(birthdate, 0, birthdate.length());
+    }
+
+    /**
+     * Validates a birthdate stored in value[start, end)
+     * @param value the text holding the birthdate
+     * @param start index of the first character
+     * @param end index after the last character
+     * @return VALID or the birthdate rule that failed
+     */
+    public static ValidationResult validateBirthdate(CharSequence value, int start, int end) {
+        if (end - start != 10 || value.charAt(start + 2) != '-' || value.charAt(start + 5) != '-') {
+            return ValidationResult.INVALID_BIRTHDATE_FORMAT;
+        }
+        int day = parseDigits(value, start, start + 2);
+        int month = parseDigits(value, start + 3, start + 5);
+        int year = parseDigits(value, start + 6, start + 10);
+        if (day < 0 || month < 0 || year < 0) {
+            return ValidationResult.INVALID_BIRTHDATE_FORMAT;
+        }
+        if (year < MIN_BIRTH_YEAR || year > MAX_BIRTH_YEAR) {
+            return ValidationResult.INVALID_BIRTH_YEAR;
+        }
+        if (month < 1 || month > 12) {
+            return ValidationResult.INVALID_BIRTH_MONTH;
+        }
+        if (day < 1 || day > daysInMonth(month, year)) {
+            return ValidationResult.INVALID_BIRTH_DAY;
+        }
+        return ValidationResult.VALID;
+    }
+
+    /**
+     * Validates all fields of a person
+     * @param id the person ID
+     * @param address the address
+     * @param birthdate the birthdate
+     * @return VALID or the first rule that failed (ID, then address, then birthdate)
+     */
+    public static ValidationResult validate(CharSequence id, CharSequence address, CharSequence birthdate) {
+        ValidationResult result = validateID(id);
+        if (result.isValid()) {
+            result = validateAddress(address);
+        }
+        if (result.isValid()) {
+            result = validateBirthdate(birthdate);
+        }
+        return result;
+    }
+
+    /**
+     * Validates a whole record line in one pass:
+     * personID|firstName|lastName|number|street|city|Victoria|country|birthdate[|isSuspended]
+     * @param line the record line
+     * @return VALID or the first rule that failed
+     */
+    public static ValidationResult validateRecord(CharSequence line) {
+        if (line == null) {
+            return ValidationResult.INVALID_RECORD;
+        }
+        // Field boundaries: ID, first name, last name, 5 address fields, birthdate, optional suspension
+        int idEnd = -1, firstEnd = -1, lastEnd = -1, addressEnd = -1, birthdateEnd = -1;
+        int pipes = 0;
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            if (line.charAt(i) != '|') {
+                continue;
+            }
+            pipes++;
+            switch (pipes) {
+                case 1: idEnd = i; break;
+                case 2: firstEnd = i; break;
+                case 3: lastEnd = i; break;
+                case 8: addressEnd = i; break;
+                case 9: birthdateEnd = i; break;
+                default: break;
+            }
+        }
+        if (pipes == 8) {
+            // No suspension field: the birthdate runs to the end of the line
+            birthdateEnd = length;
+        } else if (pipes != 9) {
+            return ValidationResult.INVALID_RECORD;
+        }
+        ValidationResult result = validateID(line, 0, idEnd);
+        if (!result.isValid()) {
+            return result;
+        }
+        if (firstEnd - idEnd <= 1 || lastEnd - firstEnd <= 1) {
+            return ValidationResult.INVALID_NAME;
+        }
+        result = validateAddress(line, lastEnd + 1, addressEnd);
+        if (!result.isValid()) {
+            return result;
+        }
+        result = validateBirthdate(line, addressEnd + 1, birthdateEnd);
+        if (!result.isValid()) {
+            return result;
+        }
+        if (pipes == 9 && !regionEquals(line, birthdateEnd + 1, length, "true") && !regionEquals(line, birthdateEnd + 1, length, "false")) {
+            return ValidationResult.INVALID_RECORD;
+        }
+        return ValidationResult.VALID;
+    }
+
+    private static boolean isDigitBetween(char c, char low, char high) {
+        return c >= low && c <= high;
+    }
+
+    private static boolean isUpperAsciiLetter(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean regionEquals(CharSequence value, int start, int end, String expected) {
+        if (end - start != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (value.charAt(start + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Parses ASCII digits in value[start, end), or returns -1 if any character is not a digit
+    private static int parseDigits(CharSequence value, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static int daysInMonth(int month, int year) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Arrays;
+
+/**
+ * Read-only view of one stored person record (personID|firstName|lastName|address|birthdate|isSuspended).
+ * Nothing is split up front: the field boundaries are found the first time a field other than the ID
+ * is asked for, and each field is only copied out of the line when its getter is called.
+ */
+public class PersonView {
+    // Field positions in a record line; the address takes five fields
+    private static final int FIRST_NAME = 1;
+    private static final int LAST_NAME = 2;
+    private static final int ADDRESS_START = 3;
+    private static final int SUBURB = 5;
+    private static final int ADDRESS_END = 7;
+    private static final int BIRTHDATE = 8;
+    private static final int FIELDS = 10;
+
+    private final String line;
+    private int[] starts; // start of each field, plus line length + 1 as a sentinel; null until needed
+
+    PersonView(String line) {
+        this.line = line;
+    }
+
+    public String getPersonID() {
+        int end = line.indexOf('|');
+        return end < 0 ? line : line.substring(0, end);
+    }
+
+    public String getFirstName() { return field(FIRST_NAME); }
+
+    public String getLastName() { return field(LAST_NAME); }
+
+    /**
+     * @return the address as entered (streetNumber|street|city|state|country)
+     */
+    public String getAddress() {
+        locateFields();
+        return line.substring(starts[ADDRESS_START], starts[ADDRESS_END + 1] - 1);
+    }
+
+    /**
+     * @return the suburb (city part of the address)
+     */
+    public String getSuburb() { return field(SUBURB); }
+
+    public String getBirthdate() { return field(BIRTHDATE); }
+
+    public boolean isSuspended() {
+        return line.endsWith("|true");
+    }
+
+    /**
+     * @param asOf the reference date
+     * @return age in whole years on the reference date
+     * @throws java.time.format.DateTimeParseException if the stored birthdate is not valid
+     */
+    public int getAge(LocalDate asOf) {
+        return Period.between(Person.parseDate(getBirthdate()), asOf).getYears();
+    }
+
+    /**
+     * @return the stored record line
+     */
+    public String getRecord() {
+        return line;
+    }
+
+    @Override
+    public String toString() {
+        return line;
+    }
+
+    private String field(int index) {
+        locateFields();
+        if (index >= starts.length - 1) {
+            return null;
+        }
+        return line.substring(starts[index], starts[index + 1] - 1);
+    }
+
+    private void locateFields() {
+        if (starts != null) {
+            return;
+        }
+        int[] found = new int[FIELDS + 1];
+        int count = 1;
+        for (int i = 0; i < line.length() && count < FIELDS; i++) {
+            if (line.charAt(i) == '|') {
+                found[count++] = i + 1;
+            }
+        }
+        found[count] = line.length() + 1;
+        starts = count == FIELDS ? found : Arrays.copyOf(found, count + 1);
+    }
+
+    /**
+     * Birthdate of a record line as yyyymmdd, read in place without copying the field
+     * @param line the record line
+     * @return the birthdate as yyyymmdd, or -1 if the field is not a dd-MM-yyyy date
+     */
+    static int birthdateKey(String line) {
+        int end = line.lastIndexOf('|');
+        int start = line.lastIndexOf('|', end - 1) + 1;
+        if (end < 0 || end - start != 10 || line.charAt(start + 2) != '-' || line.charAt(start + 5) != '-') {
+            return -1;
+        }
+        int day = digits(line, start, 2);
+        int month = digits(line, start + 3, 2);
+        int year = digits(line, start + 6, 4);
+        if (day < 0 || month < 0 || year < 0) {
+            return -1;
+        }
+        return year * 10000 + month * 100 + day;
+    }
+
+    private static int digits(String line, int start, int length) {
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
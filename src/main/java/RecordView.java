@@ -0,0 +1,146 @@
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * One line of a MappedRecordFile, read in place: a byte range of the mapping.
+ * Field boundaries are found the first time a field is asked for, and only the fields
+ * actually used are decoded, so filtering on one field never builds the others.
+ */
+public final class RecordView {
+    private static final int MAX_FIELDS = 16;
+
+    private final MappedRecordFile file;
+    private final long start;
+    private final long end;
+    private int[] starts; // start of each field relative to the line, plus length + 1 as a sentinel
+
+    RecordView(MappedRecordFile file, long start, long end) {
+        this.file = file;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @return byte position of the line in the file
+     */
+    public long start() {
+        return start;
+    }
+
+    /**
+     * @return the whole line, decoded
+     */
+    public String line() {
+        return file.decode(start, end);
+    }
+
+    /**
+     * @param c an ASCII character
+     * @return true if the line starts with it
+     */
+    public boolean startsWith(char c) {
+        return file.byteAt(start) == c;
+    }
+
+    /**
+     * @return the first field (the personID in both data files), found without locating the other fields
+     */
+    public String firstField() {
+        long bar = file.indexOf((byte) '|', start, end);
+        return file.decode(start, bar < 0 ? end : bar);
+    }
+
+    /**
+     * @return number of pipe-separated fields (up to 16)
+     */
+    public int fieldCount() {
+        locateFields();
+        return starts.length - 1;
+    }
+
+    /**
+     * @param index the field position (0-based)
+     * @return the field, or null if the line has fewer fields
+     */
+    public String field(int index) {
+        locateFields();
+        if (index >= starts.length - 1) {
+            return null;
+        }
+        return file.decode(start + starts[index], start + starts[index + 1] - 1);
+    }
+
+    /**
+     * Reads a field as a non-negative whole number without decoding it
+     * @param index the field position
+     * @return the number
+     * @throws NumberFormatException if the field is missing or not all digits
+     */
+    public int intField(int index) {
+        locateFields();
+        if (index >= starts.length - 1 || starts[index + 1] - 1 == starts[index]) {
+            throw new NumberFormatException("Field " + index + " is empty or missing");
+        }
+        return digits(start + starts[index], start + starts[index + 1] - 1);
+    }
+
+    /**
+     * Reads a DD-MM-YYYY field without decoding it
+     * @param index the field position
+     * @return the date
+     * @throws DateTimeException if the field is missing or not a valid date
+     */
+    public LocalDate dateField(int index) {
+        locateFields();
+        if (index >= starts.length - 1) {
+            throw new DateTimeException("Field " + index + " is missing");
+        }
+        long from = start + starts[index];
+        if (start + starts[index + 1] - 1 - from != 10 || file.byteAt(from + 2) != '-' || file.byteAt(from + 5) != '-') {
+            throw new DateTimeException("Not a DD-MM-YYYY date");
+        }
+        try {
+            // LocalDate.of rejects days that do not exist, matching the strict parser
+            return LocalDate.of(digits(from + 6, from + 10), digits(from + 3, from + 5), digits(from, from + 2));
+        } catch (NumberFormatException e) {
+            throw new DateTimeException("Not a DD-MM-YYYY date");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return line();
+    }
+
+    private int digits(long from, long to) {
+        if (to - from > 9) {
+            throw new NumberFormatException("Number too long");
+        }
+        int value = 0;
+        for (long i = from; i < to; i++) {
+            byte b = file.byteAt(i);
+            if (b < '0' || b > '9') {
+                throw new NumberFormatException("Not a number");
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private void locateFields() {
+        if (starts != null) {
+            return;
+        }
+        int[] found = new int[MAX_FIELDS + 1];
+        int count = 1;
+        int length = (int) (end - start);
+        for (int i = 0; i < length && count < MAX_FIELDS; i++) {
+            if (file.byteAt(start + i) == '|') {
+                found[count++] = i + 1;
+            }
+        }
+        found[count] = length + 1;
+        starts = Arrays.copyOf(found, count + 1);
+    }
+}
@@ -0,0 +1,173 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One committed, immutable version of a PersonRegistry's records.
+ * A version is a large base map shared by many versions plus a small delta of the records changed
+ * since that base was built; publishing a write copies only the delta, and the delta is folded into
+ * a new base once it grows past about the square root of the record count. Readers get consistent
+ * answers from whichever version they hold, without taking the registry lock.
+ *
+ * Versions returned by {@link PersonRegistry#pin()} must be closed; a superseded version is dropped
+ * (and its base and delta left to the garbage collector) when its last pin is released. Each pin is
+ * its own handle, so closing it twice releases it once.
+ */
+public final class RegistryVersion implements AutoCloseable {
+    // Marks a record removed in the delta; compared by identity
+    private static final String REMOVED = new String("<removed>");
+    private static final int MIN_DELTA = 16;
+
+    private final PersonRegistry owner;
+    private final long number;
+    private final Map<String, String> base;
+    private final Map<String, String> delta;
+    private final int size;
+    private final AtomicInteger pins = new AtomicInteger();
+    private final RegistryVersion pinned; // for a pin handle, the version it pins; null otherwise
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean superseded;
+    private long fileLength;   // persons file length/timestamp when the version was committed
+    private long fileModified;
+
+    private RegistryVersion(PersonRegistry owner, long number, Map<String, String> base, Map<String, String> delta, int size) {
+        this.owner = owner;
+        this.number = number;
+        this.base = base;
+        this.delta = delta;
+        this.size = size;
+        this.pinned = null;
+    }
+
+    // A pin handle: reads the same records as the version it pins
+    private RegistryVersion(RegistryVersion pinned) {
+        this.owner = pinned.owner;
+        this.number = pinned.number;
+        this.base = pinned.base;
+        this.delta = pinned.delta;
+        this.size = pinned.size;
+        this.pinned = pinned;
+    }
+
+    /**
+     * Builds a version holding a full copy of the records
+     */
+    static RegistryVersion of(PersonRegistry owner, long number, Map<String, String> records) {
+        return new RegistryVersion(owner, number, Collections.unmodifiableMap(new HashMap<>(records)), Collections.emptyMap(), records.size());
+    }
+
+    /**
+     * Builds the next version from this one and the records changed since (null value = removed)
+     * @param changes changed records by personID
+     * @param records all current records, used when the delta is folded into a new base
+     */
+    RegistryVersion next(Map<String, String> changes, Map<String, String> records) {
+        int limit = Math.max(MIN_DELTA, (int) Math.sqrt(records.size()));
+        if (delta.size() + changes.size() > limit) {
+            return of(owner, number + 1, records);
+        }
+        Map<String, String> merged = new HashMap<>(delta);
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            merged.put(change.getKey(), change.getValue() == null ? REMOVED : change.getValue());
+        }
+        return new RegistryVersion(owner, number + 1, base, Collections.unmodifiableMap(merged), records.size());
+    }
+
+    /**
+     * @return the version number; each committed write publishes a higher one
+     */
+    public long getNumber() {
+        return number;
+    }
+
+    /**
+     * @param personID the person ID
+     * @return the record line in this version, or null if not registered
+     */
+    public String getRecord(String personID) {
+        String line = delta.get(personID);
+        if (line != null) {
+            return line == REMOVED ? null : line;
+        }
+        return base.get(personID);
+    }
+
+    /**
+     * @param personID the person ID
+     * @return true if the person is registered in this version
+     */
+    public boolean contains(String personID) {
+        return getRecord(personID) != null;
+    }
+
+    /**
+     * @return number of records in this version
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return every record line of this version
+     */
+    public List<String> records() {
+        List<String> lines = new ArrayList<>(size);
+        for (Map.Entry<String, String> entry : base.entrySet()) {
+            if (!delta.containsKey(entry.getKey())) {
+                lines.add(entry.getValue());
+            }
+        }
+        for (String line : delta.values()) {
+            if (line != REMOVED) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    // Set once before the version is published
+    void describe(long length, long modified) {
+        this.fileLength = length;
+        this.fileModified = modified;
+    }
+
+    boolean describes(long length, long modified) {
+        return fileLength == length && fileModified == modified;
+    }
+
+    RegistryVersion pin() {
+        pins.incrementAndGet();
+        return new RegistryVersion(this);
+    }
+
+    /**
+     * Called by the registry when a newer version is published
+     * @return true if the version is still pinned and must be kept
+     */
+    boolean supersede() {
+        superseded = true;
+        return pins.get() > 0;
+    }
+
+    /**
+     * Releases the pin taken by PersonRegistry.pin(); later calls do nothing
+     */
+    @Override
+    public void close() {
+        if (pinned == null || !closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (pinned.pins.decrementAndGet() == 0 && pinned.superseded) {
+            owner.released(pinned);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RegistryVersion[" + number + ", " + size + " records]";
+    }
+}
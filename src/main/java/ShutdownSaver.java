@@ -0,0 +1,53 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the index saves of a shutdown hook without letting a busy index hold up JVM exit.
+ * Each save runs on its own daemon thread and the hook waits for them up to one deadline; a save still
+ * waiting for its index's lock at the deadline is skipped (the JVM halts once the hooks return), and the
+ * index is rebuilt from its data file on the next start as if it had never been saved.
+ */
+final class ShutdownSaver {
+    // How long a shutdown hook waits for all of its saves (-Dperson.shutdown.saveMillis)
+    static final long TIMEOUT_MILLIS = Long.getLong("person.shutdown.saveMillis", 5000);
+
+    private ShutdownSaver() {
+    }
+
+    /**
+     * Runs the saves in parallel and waits for them until the timeout
+     * @param name name of the save threads
+     * @param saves the saves to run
+     * @param timeoutMillis how long to wait for all saves together
+     * @return number of saves skipped because they had not finished in time
+     */
+    static int saveAll(String name, List<Runnable> saves, long timeoutMillis) {
+        List<Thread> threads = new ArrayList<>(saves.size());
+        for (Runnable save : saves) {
+            Thread thread = new Thread(save, name);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        int skipped = 0;
+        for (Thread thread : threads) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            try {
+                if (remaining > 0) {
+                    thread.join(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                skipped++;
+            }
+        }
+        if (skipped > 0) {
+            System.out.println("Error saving indexes: " + skipped + " still busy after " + timeoutMillis + " ms, skipped");
+        }
+        return skipped;
+    }
+}
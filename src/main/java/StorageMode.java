@@ -0,0 +1,11 @@
+/**
+ * How updates to an existing person record are written to the persons file
+ */
+public enum StorageMode {
+    /** Read the whole file and write it back with the changed line (original behaviour) */
+    REWRITE,
+    /** Append the new version of the record; the latest line for an ID wins and a background compactor drops old versions */
+    APPEND_LOG,
+    /** Append and force each change to a write-ahead journal; the persons file is rewritten only at checkpoints */
+    JOURNALED
+}
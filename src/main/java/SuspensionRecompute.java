@@ -0,0 +1,244 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Bulk re-evaluation of every person's suspension status as of a given date.
+ * addDemeritPoints only ever sets isSuspended when a new offense arrives; this job also lifts
+ * suspensions once offenses age out of the two-year window and applies the 21st-birthday threshold change.
+ *
+ * All demerit histories are loaded once, the persons are split into ranges that are evaluated in
+ * parallel on a ForkJoinPool, and only the flags that changed are written back, in one pass.
+ */
+public class SuspensionRecompute {
+    // Persons evaluated by one leaf task
+    private static final int PERSONS_PER_TASK = 2048;
+
+    private final ForkJoinPool pool;
+
+    public SuspensionRecompute() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public SuspensionRecompute(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Recomputes all suspension flags and writes back the ones that changed
+     * @param personFile the persons file
+     * @param demeritFile the demerit points file
+     * @param asOf the reference date for ages and the two-year window
+     * @return number of persons whose suspension status changed
+     * @throws IOException if either file could not be read or the persons file could not be written
+     */
+    public int recompute(String personFile, String demeritFile, LocalDate asOf) throws IOException {
+        // Make sure group-committed offenses are in the file before reading it
+        DemeritJournal.forFile(demeritFile).flush();
+        Map<String, DemeritHistory> histories = loadHistories(demeritFile);
+
+        PersonShards registry = PersonShards.forFile(personFile);
+        List<String> records = registry.snapshot();
+        Map<String, Boolean> changes = pool.invoke(new RecomputeTask(records, 0, records.size(), histories, asOf));
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        // The snapshot and histories were read without the person locks: an offense or update may have
+        // landed since. Each change is checked again against the current record and history while
+        // the changed persons are locked, so only flags that are still right are written.
+        try (PersonLocks.Handle lock = PersonLocks.lockAll(changes.keySet())) {
+            Map<String, Boolean> confirmed = new HashMap<>();
+            for (String personID : changes.keySet()) {
+                String current = registry.getRecord(personID);
+                if (current == null) {
+                    continue;
+                }
+                Boolean suspended = evaluate(current, currentHistory(demeritFile, personID), asOf);
+                if (suspended != null) {
+                    confirmed.put(personID, suspended);
+                }
+            }
+            int changed = registry.updateSuspensions(confirmed);
+            PersonCache.shared().invalidateAll(confirmed.keySet());
+            // Every confirmed person is registered (removals take the person lock), so each was updated
+            for (Map.Entry<String, Boolean> change : confirmed.entrySet()) {
+                PersonEventLog.publishQuietly(personFile, PersonEvent.Type.SUSPENSION_CHANGED, change.getKey(), change.getKey(), String.valueOf(change.getValue()));
+            }
+            return changed;
+        }
+    }
+
+    // A person's history as it is now, read through the demerit offset index
+    private static DemeritHistory currentHistory(String demeritFile, String personID) throws IOException {
+        DemeritHistory history = new DemeritHistory();
+        for (String line : DemeritIndex.forFile(demeritFile).linesFor(personID)) {
+            String[] parts = line.split("\\|");
+            if (parts.length < 3) {
+                continue;
+            }
+            try {
+                history.add(Person.parseDate(parts[1]), Integer.parseInt(parts[2]));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                // Skip malformed lines
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Reads the demerit points file into one sorted history per person.
+     * Histories saved by an earlier run (see IndexSnapshot) are reused when the file still starts with
+     * the bytes they were built from, so only offenses appended since then are parsed; the result is
+     * saved again for the next run.
+     * @param demeritFile the demerit points file (personID|offenseDate|points|isSuspended)
+     * @return history per personID
+     * @throws IOException if the file could not be read
+     */
+    static Map<String, DemeritHistory> loadHistories(String demeritFile) throws IOException {
+        Path path = Paths.get(demeritFile);
+        if (!Files.exists(path)) {
+            return new HashMap<>();
+        }
+        // Measured while appends are held off, so the range ends on a complete line and the
+        // timestamp belongs to that length
+        long[] measured = DemeritJournal.forFile(demeritFile).exclusive(() -> new long[] {Files.size(path), path.toFile().lastModified()});
+        long end = measured[0];
+
+        IndexSnapshot.Histories snapshot = IndexSnapshot.loadHistories(path);
+        Map<String, DemeritHistory> histories = snapshot == null ? new HashMap<>() : snapshot.histories;
+        long start = snapshot == null ? 0 : snapshot.coveredLength;
+        if (start >= end) {
+            return histories;
+        }
+
+        PersonMetrics.bytesRead(end - start);
+        // The tail is parsed in parallel, one newline-aligned chunk per core, and the chunks' histories merged
+        Tail tail = MappedRecordFile.open(path).records(start, end).collect(Tail::new, Tail::add, Tail::merge);
+        mergeHistories(histories, tail.histories);
+        PersonMetrics.linesScanned(tail.lines);
+        try {
+            IndexSnapshot.saveHistories(path, end, measured[1], histories);
+        } catch (IOException e) {
+            System.out.println("Error saving demerit snapshot: " + e.getMessage());
+        }
+        return histories;
+    }
+
+    // Adds one demerit line (personID|offenseDate|points|...) to the histories; malformed lines are skipped
+    private static void addOffense(Map<String, DemeritHistory> histories, RecordView line) {
+        try {
+            LocalDate offenseDate = line.dateField(1);
+            int points = line.intField(2);
+            histories.computeIfAbsent(line.firstField(), id -> new DemeritHistory()).add(offenseDate, points);
+        } catch (DateTimeException | NumberFormatException e) {
+            // Skip malformed lines
+        }
+    }
+
+    // Histories parsed from one chunk of the demerit file, and the number of lines the chunk had
+    private static class Tail {
+        final Map<String, DemeritHistory> histories = new HashMap<>();
+        long lines;
+
+        void add(RecordView line) {
+            lines++;
+            addOffense(histories, line);
+        }
+
+        void merge(Tail other) {
+            lines += other.lines;
+            mergeHistories(histories, other.histories);
+        }
+    }
+
+    // Moves the offenses of one set of histories into another
+    private static void mergeHistories(Map<String, DemeritHistory> into, Map<String, DemeritHistory> from) {
+        for (Map.Entry<String, DemeritHistory> entry : from.entrySet()) {
+            DemeritHistory target = into.get(entry.getKey());
+            if (target == null) {
+                into.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            DemeritHistory source = entry.getValue();
+            for (int i = 0; i < source.size(); i++) {
+                target.add(source.dayAt(i), source.pointsAt(i));
+            }
+        }
+    }
+
+    /**
+     * Evaluates one person record
+     * @param line the record line (personID|firstName|lastName|address|birthdate|isSuspended)
+     * @param history the person's demerit history, or null if they have none
+     * @param asOf the reference date
+     * @return the new suspension status, or null if it is unchanged or the record cannot be evaluated
+     */
+    static Boolean evaluate(String line, DemeritHistory history, LocalDate asOf) {
+        int suspendedStart = line.lastIndexOf('|');
+        int birthdateStart = line.lastIndexOf('|', suspendedStart - 1);
+        if (birthdateStart < 0) {
+            return null;
+        }
+        boolean wasSuspended = Boolean.parseBoolean(line.substring(suspendedStart + 1));
+        int age;
+        try {
+            age = Period.between(Person.parseDate(line.substring(birthdateStart + 1, suspendedStart)), asOf).getYears();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+        long totalPoints = history == null ? 0 : history.pointsInTwoYears(asOf);
+        boolean suspended = Person.exceedsSuspensionThreshold(age, totalPoints);
+        return suspended == wasSuspended ? null : suspended;
+    }
+
+    // Splits the record range in half until it is small enough, then evaluates it directly
+    private static class RecomputeTask extends RecursiveTask<Map<String, Boolean>> {
+        private final List<String> records;
+        private final int from;
+        private final int to;
+        private final Map<String, DemeritHistory> histories;
+        private final LocalDate asOf;
+
+        RecomputeTask(List<String> records, int from, int to, Map<String, DemeritHistory> histories, LocalDate asOf) {
+            this.records = records;
+            this.from = from;
+            this.to = to;
+            this.histories = histories;
+            this.asOf = asOf;
+        }
+
+        @Override
+        protected Map<String, Boolean> compute() {
+            if (to - from <= PERSONS_PER_TASK) {
+                Map<String, Boolean> changes = new HashMap<>();
+                for (int i = from; i < to; i++) {
+                    String line = records.get(i);
+                    String personID = PersonRegistry.idOf(line);
+                    Boolean suspended = evaluate(line, histories.get(personID), asOf);
+                    if (suspended != null) {
+                        changes.put(personID, suspended);
+                    }
+                }
+                return changes;
+            }
+            int middle = (from + to) >>> 1;
+            RecomputeTask left = new RecomputeTask(records, from, middle, histories, asOf);
+            RecomputeTask right = new RecomputeTask(records, middle, to, histories, asOf);
+            left.fork();
+            Map<String, Boolean> changes = right.compute();
+            changes.putAll(left.join());
+            return changes;
+        }
+    }
+}
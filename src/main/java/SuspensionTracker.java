@@ -0,0 +1,347 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps every person's suspension status current as time passes, without rescanning the files.
+ * Each person has a running total of the points inside the two-year window. Every offense schedules
+ * the day it leaves the window (and, if it lies in the future, the day it enters), and every person
+ * under 21 schedules their 21st birthday, on a {@link TimerWheel}. Advancing the clock only touches
+ * the persons whose timers fire, so suspensions are lifted when points expire and thresholds switch
+ * from 6 to 12 on the 21st birthday, both of which addDemeritPoints never re-evaluates.
+ *
+ * The clock is injectable so the date can be fast-forwarded in tests. Not thread-safe on its own;
+ * the static entry points and the scheduled job synchronize on the tracker.
+ */
+public class SuspensionTracker {
+    // Trackers loaded for a persons file (keyed by absolute path), fed by the Person operations
+    private static final Map<String, SuspensionTracker> TRACKERS = new HashMap<>();
+    private static final ScheduledExecutorService TICKER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "suspension-tracker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Clock clock;
+    private final TimerWheel<Timer> wheel;
+    private final Map<String, PersonState> persons = new HashMap<>();
+    private final Set<PersonState> dirty = new LinkedHashSet<>();
+    private ScheduledFuture<?> job;
+
+    /**
+     * @param clock the clock giving the current date
+     */
+    public SuspensionTracker(Clock clock) {
+        this.clock = clock;
+        this.wheel = new TimerWheel<>(LocalDate.now(clock).toEpochDay());
+    }
+
+    /**
+     * Builds a tracker from the stored persons and offenses and registers it for the persons file,
+     * so later adds and offenses made through Person keep it current
+     * @param personFile the persons file
+     * @param demeritFile the demerit points file
+     * @param clock the clock giving the current date
+     * @return the tracker; call {@link #advance()} or {@link #apply(String)} to get the changes found
+     * @throws IOException if either file could not be read
+     */
+    public static SuspensionTracker load(String personFile, String demeritFile, Clock clock) throws IOException {
+        DemeritJournal.forFile(demeritFile).flush();
+        Map<String, DemeritHistory> histories = SuspensionRecompute.loadHistories(demeritFile);
+        List<String> records = PersonShards.forFile(personFile).snapshot();
+
+        SuspensionTracker tracker = new SuspensionTracker(clock);
+        for (String line : records) {
+            PersonView view = new PersonView(line);
+            LocalDate birthdate;
+            try {
+                birthdate = Person.parseDate(view.getBirthdate());
+            } catch (DateTimeParseException | NullPointerException e) {
+                continue;
+            }
+            tracker.track(view.getPersonID(), birthdate, view.isSuspended());
+            DemeritHistory history = histories.get(view.getPersonID());
+            for (int i = 0; history != null && i < history.size(); i++) {
+                tracker.offense(view.getPersonID(), LocalDate.ofEpochDay(history.dayAt(i)), history.pointsAt(i));
+            }
+        }
+        synchronized (TRACKERS) {
+            TRACKERS.put(Paths.get(personFile).toAbsolutePath().toString(), tracker);
+        }
+        return tracker;
+    }
+
+    /**
+     * Starts tracking a person
+     * @param personID the person's ID
+     * @param birthdate the person's birthdate
+     * @param storedSuspended the suspension status currently stored for the person
+     */
+    public synchronized void track(String personID, LocalDate birthdate, boolean storedSuspended) {
+        PersonState state = new PersonState(personID, birthdate.plusYears(21).toEpochDay(), storedSuspended);
+        persons.put(personID, state);
+        if (state.turns21 > today()) {
+            wheel.schedule(state.turns21, new Timer(state, 0, true));
+        }
+        evaluate(state);
+    }
+
+    /**
+     * Stops tracking a person (e.g. after an ID change; track the new ID again)
+     * @param personID the person's ID
+     */
+    public synchronized void untrack(String personID) {
+        PersonState state = persons.remove(personID);
+        if (state != null) {
+            // Timers still in the wheel see a removed state and are ignored
+            state.removed = true;
+            dirty.remove(state);
+        }
+    }
+
+    /**
+     * Records an offense of a tracked person
+     * @param personID the person's ID
+     * @param offenseDate the offense date
+     * @param points the demerit points
+     */
+    public synchronized void offense(String personID, LocalDate offenseDate, int points) {
+        PersonState state = persons.get(personID);
+        if (state == null) {
+            return;
+        }
+        long day = offenseDate.toEpochDay();
+        long expires = expiryDay(offenseDate);
+        long today = today();
+        if (expires <= today) {
+            return;
+        }
+        if (day > today) {
+            wheel.schedule(day, new Timer(state, points, false));
+        } else {
+            state.points += points;
+            evaluate(state);
+        }
+        wheel.schedule(expires, new Timer(state, -points, false));
+    }
+
+    // An offense counts while day > today - 2 years (DemeritHistory.pointsInTwoYears), so it expires on
+    // the first day d with d.minusYears(2) >= offense. plusYears(2) clamps 29 February to the 28th,
+    // which is still inside the window, so that offense expires a day later.
+    static long expiryDay(LocalDate offenseDate) {
+        LocalDate expires = offenseDate.plusYears(2);
+        if (expires.minusYears(2).isBefore(offenseDate)) {
+            expires = expires.plusDays(1);
+        }
+        return expires.toEpochDay();
+    }
+
+    /**
+     * Moves the tracker to the clock's current date, applying every expiry, offense and birthday on the way
+     * @return the persons whose suspension status differs from what was last stored or reported, with the new status
+     */
+    public synchronized Map<String, Boolean> advance() {
+        wheel.advance(today(), this::fire);
+        Map<String, Boolean> changes = new LinkedHashMap<>();
+        for (PersonState state : dirty) {
+            if (state.suspended != state.reported) {
+                changes.put(state.personID, state.suspended);
+                state.reported = state.suspended;
+            }
+        }
+        dirty.clear();
+        return changes;
+    }
+
+    /**
+     * Advances the tracker and writes the suspension changes to the persons file
+     * @param personFile the persons file
+     * @return number of persons whose suspension status changed
+     * @throws IOException if the persons file could not be written
+     */
+    public synchronized int apply(String personFile) throws IOException {
+        Map<String, Boolean> changes = advance();
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        int changed = PersonShards.forFile(personFile).updateSuspensions(changes);
+        PersonCache.shared().invalidateAll(changes.keySet());
+        for (Map.Entry<String, Boolean> change : changes.entrySet()) {
+            PersonEventLog.publishQuietly(personFile, PersonEvent.Type.SUSPENSION_CHANGED, change.getKey(), change.getKey(), String.valueOf(change.getValue()));
+        }
+        return changed;
+    }
+
+    /**
+     * @param personID the person's ID
+     * @return the tracked suspension status (false for persons not tracked)
+     */
+    public boolean isSuspended(String personID) {
+        PersonState state = persons.get(personID);
+        return state != null && state.suspended;
+    }
+
+    /**
+     * @param personID the person's ID
+     * @return points inside the two-year window as of the last advance
+     */
+    public long windowPoints(String personID) {
+        PersonState state = persons.get(personID);
+        return state == null ? 0 : state.points;
+    }
+
+    /**
+     * Applies the tracker to the persons file periodically (e.g. once an hour, so date changes are picked up)
+     * @param personFile the persons file
+     * @param period time between runs
+     * @param unit unit of the period
+     */
+    public synchronized void start(String personFile, long period, TimeUnit unit) {
+        stop();
+        job = TICKER.scheduleAtFixedRate(() -> {
+            try {
+                apply(personFile);
+            } catch (IOException e) {
+                System.out.println("Error applying suspension changes: " + e.getMessage());
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Stops the periodic job, if running
+     */
+    public synchronized void stop() {
+        if (job != null) {
+            job.cancel(false);
+            job = null;
+        }
+    }
+
+    /**
+     * Tells the tracker of a persons file, if one was loaded, about a newly added person
+     */
+    static void personAdded(String personFile, String personID, String birthdate) {
+        SuspensionTracker tracker = trackerFor(personFile);
+        if (tracker != null) {
+            synchronized (tracker) {
+                tracker.track(personID, Person.parseDate(birthdate), false);
+            }
+        }
+    }
+
+    /**
+     * Tells the tracker of a persons file, if one was loaded, about a recorded offense
+     * @param storedSuspended the suspension status the Person operation stored with it
+     */
+    static void offenseRecorded(String personFile, String personID, LocalDate offenseDate, int points, boolean storedSuspended) {
+        SuspensionTracker tracker = trackerFor(personFile);
+        if (tracker != null) {
+            synchronized (tracker) {
+                tracker.offense(personID, offenseDate, points);
+                PersonState state = tracker.persons.get(personID);
+                if (state != null) {
+                    state.reported = storedSuspended;
+                    tracker.dirty.add(state);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells the tracker of a persons file, if one was loaded, about changed details (ID or birthdate);
+     * the person keeps their offenses and scheduled expiries
+     */
+    static void detailsUpdated(String personFile, String oldID, String newID, String birthdate) {
+        SuspensionTracker tracker = trackerFor(personFile);
+        if (tracker == null) {
+            return;
+        }
+        synchronized (tracker) {
+            PersonState state = tracker.persons.remove(oldID);
+            if (state == null) {
+                return;
+            }
+            state.personID = newID;
+            long turns21 = Person.parseDate(birthdate).plusYears(21).toEpochDay();
+            if (turns21 != state.turns21) {
+                state.turns21 = turns21;
+                // A timer for the old birthday only re-evaluates, so it can stay in the wheel
+                if (turns21 > tracker.wheel.getCurrentDay()) {
+                    tracker.wheel.schedule(turns21, new Timer(state, 0, true));
+                }
+            }
+            tracker.persons.put(newID, state);
+            tracker.evaluate(state);
+        }
+    }
+
+    private static SuspensionTracker trackerFor(String personFile) {
+        synchronized (TRACKERS) {
+            return TRACKERS.get(Paths.get(personFile).toAbsolutePath().toString());
+        }
+    }
+
+    private long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+
+    private void fire(Timer timer) {
+        PersonState state = timer.state;
+        if (state.removed) {
+            return;
+        }
+        if (timer.birthday) {
+            // Threshold changes from 6 to 12; evaluate reads the wheel's day
+            evaluate(state);
+            return;
+        }
+        state.points += timer.points;
+        evaluate(state);
+    }
+
+    private void evaluate(PersonState state) {
+        boolean under21 = wheel.getCurrentDay() < state.turns21;
+        state.suspended = Person.exceedsSuspensionThreshold(under21 ? 20 : 21, state.points);
+        dirty.add(state);
+    }
+
+    private static final class PersonState {
+        String personID;
+        long turns21;         // epoch day of the 21st birthday
+        long points;          // points inside the two-year window
+        boolean suspended;    // status from the current window
+        boolean reported;     // status last stored or returned by advance
+        boolean removed;
+
+        PersonState(String personID, long turns21, boolean storedSuspended) {
+            this.personID = personID;
+            this.turns21 = turns21;
+            this.reported = storedSuspended;
+        }
+    }
+
+    // Points entering (positive) or leaving (negative) the window, or a 21st birthday
+    private static final class Timer {
+        final PersonState state;
+        final int points;
+        final boolean birthday;
+
+        Timer(PersonState state, int points, boolean birthday) {
+            this.state = state;
+            this.points = points;
+            this.birthday = birthday;
+        }
+    }
+}
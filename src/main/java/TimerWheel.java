@@ -0,0 +1,138 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timer wheel with one-day ticks.
+ * Four levels of 64 slots each cover 64^4 days ahead of the current day; a timer sits in the level
+ * that matches the first digit (base 64) where its day differs from the current day, and moves down
+ * a level each time the wheel below it wraps around. Scheduling is O(1) and each timer is moved at
+ * most three times before it fires, so advancing the clock costs O(1) amortized per timer plus one
+ * step per day (days with nothing scheduled are skipped when the wheel is empty).
+ * @param <T> the timer payload
+ */
+public class TimerWheel<T> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final List<List<Timer<T>>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private final List<Timer<T>> due = new ArrayList<>(); // scheduled for today or earlier
+    private long current;
+    private int size;
+
+    /**
+     * @param startDay the current day (epoch day)
+     */
+    public TimerWheel(long startDay) {
+        this.current = startDay;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedules a payload; payloads for the current day or earlier fire on the next advance
+     * @param day the day it fires (epoch day)
+     * @param payload the payload
+     */
+    public void schedule(long day, T payload) {
+        place(new Timer<>(day, payload));
+        size++;
+    }
+
+    /**
+     * Moves the wheel forward, handing every payload whose day has come to the consumer in day order
+     * @param toDay the new current day (epoch day); earlier days are ignored
+     * @param fired receives the payloads that fire
+     */
+    public void advance(long toDay, Consumer<T> fired) {
+        fire(due, fired);
+        while (current < toDay) {
+            if (size == 0) {
+                current = toDay;
+                break;
+            }
+            current++;
+            cascade();
+            fire(due, fired);
+            fire(slots.get((int) (current & MASK)), fired);
+        }
+    }
+
+    /**
+     * @return the current day (epoch day)
+     */
+    public long getCurrentDay() {
+        return current;
+    }
+
+    /**
+     * @return number of scheduled timers that have not fired
+     */
+    public int size() {
+        return size;
+    }
+
+    private void place(Timer<T> timer) {
+        if (timer.day <= current) {
+            due.add(timer);
+            return;
+        }
+        long differing = timer.day ^ current;
+        int level = 0;
+        while (level < LEVELS - 1 && (differing >>> (BITS * (level + 1))) != 0) {
+            level++;
+        }
+        // Beyond the top level the timer waits in the top level and is re-placed when that slot comes round
+        int slot = (int) ((timer.day >>> (BITS * level)) & MASK);
+        slots.get(level * SLOTS + slot).add(timer);
+    }
+
+    // When the lower digits of the day wrap to zero, the matching slots of the higher levels move down
+    private void cascade() {
+        int top = 0;
+        while (top < LEVELS - 1 && (current & ((1L << (BITS * (top + 1))) - 1)) == 0) {
+            top++;
+        }
+        for (int level = top; level >= 1; level--) {
+            List<Timer<T>> slot = slots.get(level * SLOTS + (int) ((current >>> (BITS * level)) & MASK));
+            if (slot.isEmpty()) {
+                continue;
+            }
+            List<Timer<T>> moving = new ArrayList<>(slot);
+            slot.clear();
+            for (Timer<T> timer : moving) {
+                place(timer);
+            }
+        }
+    }
+
+    private void fire(List<Timer<T>> slot, Consumer<T> fired) {
+        if (slot.isEmpty()) {
+            return;
+        }
+        List<Timer<T>> firing = new ArrayList<>(slot);
+        slot.clear();
+        for (Timer<T> timer : firing) {
+            if (timer.day > current) {
+                // Only possible for timers past the top level's range; wait for the next round
+                place(timer);
+                continue;
+            }
+            size--;
+            fired.accept(timer.payload);
+        }
+    }
+
+    private static final class Timer<T> {
+        final long day;
+        final T payload;
+
+        Timer(long day, T payload) {
+            this.day = day;
+            this.payload = payload;
+        }
+    }
+}
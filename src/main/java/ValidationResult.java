@@ -0,0 +1,24 @@
+/**
+ * Outcome of a PersonValidator check: VALID, or the reason the value was rejected
+ */
+public enum ValidationResult {
+    VALID("Valid."),
+    INVALID_ID("Invalid personID - must be 10 characters, first two digits 2-9, at least two special characters between 3rd-8th, last two uppercase letters."),
+    INVALID_ADDRESS("Invalid address format or state is not Victoria."),
+    INVALID_BIRTHDATE_FORMAT("Invalid birthdate format. Expected DD-MM-YYYY."),
+    INVALID_BIRTH_YEAR("Invalid birth year. Must be between 1900 and 2025."),
+    INVALID_BIRTH_MONTH("Invalid birth month. Must be between 1 and 12."),
+    INVALID_BIRTH_DAY("Invalid birth day. Must be between 1 and 31 and exist in the given month."),
+    INVALID_NAME("Invalid name - must not be empty or contain '|'."),
+    INVALID_RECORD("Invalid record - expected personID|firstName|lastName|address|birthdate[|isSuspended].");
+
+    private final String message;
+
+    ValidationResult(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() { return message; }
+
+    public boolean isValid() { return this == VALID; }
+}
@@ -0,0 +1,86 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for BinaryPersonStore (memory-mapped binary persons file)
+ */
+public class BinaryPersonStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Records survive a reopen, suspension changes are made in place and replaced records are hidden
+     */
+    @Test
+    public void testPutAndReopen_InPlaceSuspension() throws IOException {
+        Path path = tempDir.resolve("persons.bin");
+        try (BinaryPersonStore store = BinaryPersonStore.open(path)) {
+            store.put("56s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false");
+            store.put("57s_d%&fAB|Anna|Lee|10|High Street|Geelong|Victoria|Australia|01-01-1980");
+            store.put("57s_d%&fAB|Anna|Smith|10|High Street|Geelong|Victoria|Australia|01-01-1980|false");
+            long size = Files.size(path);
+
+            assertTrue(store.setSuspended("56s_d%&fAB", true));
+            assertFalse(store.setSuspended("99s_d%&fAB", true));
+            assertEquals(size, Files.size(path));
+        }
+
+        try (BinaryPersonStore store = BinaryPersonStore.open(path)) {
+            assertEquals(2, store.size());
+            assertEquals(Boolean.TRUE, store.isSuspended("56s_d%&fAB"));
+            assertEquals("57s_d%&fAB|Anna|Smith|10|High Street|Geelong|Victoria|Australia|01-01-1980|false", store.getRecord("57s_d%&fAB"));
+            assertNull(store.getRecord("99s_d%&fAB"));
+        }
+    }
+
+    /**
+     * Text to binary and back keeps the live records, including non-ASCII fields and tombstones
+     */
+    @Test
+    public void testConvert_RoundTrip() throws IOException {
+        Path text = tempDir.resolve("persons.txt");
+        Path binary = tempDir.resolve("persons.bin");
+        Path back = tempDir.resolve("persons-back.txt");
+        Files.write(text, List.of(
+            "62s_d%&fAB|Zo\u00eb|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|true",
+            "63s_d%&fAB|Anna|Lee|10|High Street|Geelong|Victoria|Australia|01-01-1980|false",
+            "!63s_d%&fAB"));
+
+        assertEquals(1, BinaryPersonStore.convertFromText(text, binary));
+        assertEquals(1, BinaryPersonStore.convertToText(binary, back));
+
+        assertEquals(List.of("62s_d%&fAB|Zo\u00eb|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|true"),
+            Files.readAllLines(back));
+    }
+
+    /**
+     * Growing past the initial mapping remaps the file, and malformed records are rejected
+     */
+    @Test
+    public void testGrowAndReject() throws IOException {
+        Path path = tempDir.resolve("persons.bin");
+        try (BinaryPersonStore store = BinaryPersonStore.open(path)) {
+            for (int i = 0; i < 5000; i++) {
+                store.put(String.format("34%04d!!AB|First|Last|1|Main Street|Melbourne|Victoria|Australia|01-01-1990|false", i));
+            }
+            assertEquals(5000, store.size());
+            assertTrue(store.getRecord("344999!!AB").startsWith("344999!!AB|First|"));
+            assertThrows(IllegalArgumentException.class, () -> store.put("34!!AB|missing|fields"));
+        }
+        try (BinaryPersonStore store = BinaryPersonStore.open(path)) {
+            assertEquals(5000, store.size());
+        }
+    }
+}
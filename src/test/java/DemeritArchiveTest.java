@@ -0,0 +1,97 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for DemeritArchive (archiving offenses outside the two-year window)
+ */
+public class DemeritArchiveTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Aged-out offenses leave the hot file for per-year segments and can still be queried
+     */
+    @Test
+    public void testArchive_MovesAgedOutOffenses() throws IOException {
+        Path file = tempDir.resolve("demerit_points.txt");
+        Files.write(file, List.of(
+            "56s_d%&fAB|10-03-2020|3|false",
+            "57s_d%&fAB|01-06-2021|2|false",
+            "56s_d%&fAB|01-06-2022|4|false",
+            "56s_d%&fAB|02-06-2022|1|false",
+            "57s_d%&fAB|15-01-2024|5|false"));
+        DemeritArchive archive = DemeritArchive.forFile(file.toString());
+        DemeritIndex index = DemeritIndex.forFile(file.toString());
+        assertEquals(3, index.countFor("56s_d%&fAB"));
+
+        // Window for 01-06-2024 is after 01-06-2022, so that day is archived and the next one is not
+        assertEquals(3, archive.archive(LocalDate.of(2024, 6, 1)));
+
+        assertEquals(List.of("56s_d%&fAB|02-06-2022|1|false", "57s_d%&fAB|15-01-2024|5|false"), Files.readAllLines(file));
+        assertEquals(List.of(2020, 2021, 2022), archive.years());
+        assertEquals(List.of("56s_d%&fAB|10-03-2020|3|false", "56s_d%&fAB|01-06-2022|4|false"),
+            archive.query("56s_d%&fAB", LocalDate.of(2000, 1, 1), LocalDate.of(2024, 6, 1)));
+        assertEquals(List.of("57s_d%&fAB|01-06-2021|2|false"),
+            archive.query(null, LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 31)));
+        assertEquals(1, index.countFor("56s_d%&fAB"));
+    }
+
+    /**
+     * A second run appends to existing segments, and appends made between runs are kept
+     */
+    @Test
+    public void testArchive_RepeatedRunsAppend() throws IOException {
+        Path file = tempDir.resolve("demerit_points.txt");
+        Files.write(file, List.of("58s_d%&fAB|01-02-2020|3|false"));
+        DemeritArchive archive = DemeritArchive.forFile(file.toString());
+        assertEquals(1, archive.archive(LocalDate.of(2023, 1, 1)));
+
+        DemeritJournal.forFile(file.toString()).append("58s_d%&fAB|05-05-2020|2|false");
+        DemeritJournal.forFile(file.toString()).append("58s_d%&fAB|05-05-2023|2|false");
+        assertEquals(1, archive.archive(LocalDate.of(2023, 1, 1)));
+        assertEquals(0, archive.archive(LocalDate.of(2023, 1, 1)));
+
+        assertEquals(List.of("58s_d%&fAB|05-05-2023|2|false"), Files.readAllLines(file));
+        assertEquals(2, archive.query("58s_d%&fAB", LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31)).size());
+    }
+
+    /**
+     * A run cut short after writing the segments is rolled back, so re-archiving does not duplicate offenses
+     */
+    @Test
+    public void testArchive_InterruptedRunNotDuplicated() throws IOException {
+        Path file = tempDir.resolve("demerit_points.txt");
+        Files.write(file, List.of("59s_d%&fAB|01-02-2020|3|false"));
+        DemeritArchive archive = DemeritArchive.forFile(file.toString());
+        assertEquals(1, archive.archive(LocalDate.of(2023, 1, 1)));
+
+        // Two identical offenses are two offenses, so they must both be archived exactly once
+        Files.write(file, List.of("59s_d%&fAB|05-05-2020|2|false", "59s_d%&fAB|05-05-2020|2|false",
+            "59s_d%&fAB|05-05-2021|1|false", "59s_d%&fAB|05-05-2023|2|false"));
+        archive.beforeReplace = () -> {
+            throw new IllegalStateException("crash");
+        };
+        assertThrows(IllegalStateException.class, () -> archive.archive(LocalDate.of(2023, 6, 1)));
+        archive.beforeReplace = null;
+        assertEquals(4, Files.readAllLines(file).size());
+
+        assertEquals(List.of(2020), archive.years());
+        // The interrupted run's appends are gone, only the first run's offense is archived
+        assertEquals(1, archive.query("59s_d%&fAB", LocalDate.of(2020, 1, 1), LocalDate.of(2021, 12, 31)).size());
+        assertEquals(3, archive.archive(LocalDate.of(2023, 6, 1)));
+        assertEquals(List.of("59s_d%&fAB|01-02-2020|3|false", "59s_d%&fAB|05-05-2020|2|false",
+            "59s_d%&fAB|05-05-2020|2|false", "59s_d%&fAB|05-05-2021|1|false"),
+            archive.query("59s_d%&fAB", LocalDate.of(2020, 1, 1), LocalDate.of(2021, 12, 31)));
+        assertEquals(List.of("59s_d%&fAB|05-05-2023|2|false"), Files.readAllLines(file));
+    }
+}
@@ -0,0 +1,54 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for DemeritHistory (sorted offense history with running totals)
+ */
+public class DemeritHistoryTest {
+
+    /**
+     * Two offenses on the same day are both counted
+     */
+    @Test
+    public void testSameDayOffenses_BothCounted() {
+        DemeritHistory history = new DemeritHistory();
+        history.add(LocalDate.of(2024, 3, 15), 3);
+        history.add(LocalDate.of(2024, 3, 15), 4);
+
+        assertEquals(2, history.size());
+        assertEquals(7, history.pointsInTwoYears(LocalDate.of(2024, 3, 15)));
+    }
+
+    /**
+     * The window excludes the day exactly two years before and anything after the reference date
+     */
+    @Test
+    public void testTwoYearWindow_Boundaries() {
+        DemeritHistory history = new DemeritHistory();
+        history.add(LocalDate.of(2022, 3, 15), 5); // exactly two years before - excluded
+        history.add(LocalDate.of(2022, 3, 16), 2);
+        history.add(LocalDate.of(2024, 3, 15), 3);
+        history.add(LocalDate.of(2024, 3, 16), 6); // after reference date - excluded
+
+        assertEquals(5, history.pointsInTwoYears(LocalDate.of(2024, 3, 15)));
+        assertEquals(16, history.totalPoints());
+    }
+
+    /**
+     * Offenses added out of date order are kept sorted
+     */
+    @Test
+    public void testOutOfOrderAdds_StaySorted() {
+        DemeritHistory history = new DemeritHistory();
+        for (int day = 20; day > 0; day--) {
+            history.add(LocalDate.of(2024, 1, day), 1);
+        }
+
+        assertEquals(LocalDate.of(2024, 1, 1).toEpochDay(), history.dayAt(0));
+        assertEquals(LocalDate.of(2024, 1, 20).toEpochDay(), history.dayAt(19));
+        assertEquals(10, history.pointsBetween(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 15)));
+    }
+}
@@ -0,0 +1,106 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for DemeritIndex (personID to line offsets in the demerit points file)
+ */
+public class DemeritIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Only the person's own lines are returned, including lines appended through the journal
+     * and lines appended to the file directly
+     */
+    @Test
+    public void testLinesFor_StaysCurrentWithAppends() throws IOException {
+        Path file = tempDir.resolve("demerit_points.txt");
+        Files.write(file, List.of(
+            "56s_d%&fAB|01-01-2024|3|false",
+            "57s_d%&fAB|02-01-2024|2|false",
+            "56s_d%&fAB|03-01-2024|1|false"));
+        DemeritIndex index = DemeritIndex.forFile(file.toString());
+
+        assertEquals(List.of("56s_d%&fAB|01-01-2024|3|false", "56s_d%&fAB|03-01-2024|1|false"), index.linesFor("56s_d%&fAB"));
+
+        DemeritJournal.forFile(file.toString()).append("57s_d%&fAB|04-01-2024|4|false");
+        Files.writeString(file, "56s_d%&fAB|05-01-2024|6|true\n", StandardOpenOption.APPEND);
+
+        assertEquals(List.of("57s_d%&fAB|02-01-2024|2|false", "57s_d%&fAB|04-01-2024|4|false"), index.linesFor("57s_d%&fAB"));
+        assertEquals(3, index.countFor("56s_d%&fAB"));
+        assertTrue(index.linesFor("99s_d%&fAB").isEmpty());
+    }
+
+    /**
+     * A saved index is reused by a new instance, and a replaced file is detected and re-indexed
+     */
+    @Test
+    public void testSaveReload_ReplacedFileRebuilds() throws IOException {
+        Path file = tempDir.resolve("demerit_points.txt");
+        Files.write(file, List.of("58s_d%&fAB|01-01-2024|3|false", "59s_d%&fAB|02-01-2024|2|false"));
+        DemeritIndex first = new DemeritIndex(file);
+        assertEquals(1, first.countFor("59s_d%&fAB"));
+        first.save();
+        assertTrue(Files.exists(tempDir.resolve("demerit_points.txt.idx")));
+
+        // Same length, different owners: offsets no longer match their IDs
+        Files.write(file, List.of("59s_d%&fAB|01-01-2024|3|false", "58s_d%&fAB|02-01-2024|2|false"));
+        DemeritIndex second = new DemeritIndex(file);
+
+        assertEquals(List.of("58s_d%&fAB|02-01-2024|2|false"), second.linesFor("58s_d%&fAB"));
+    }
+
+    /**
+     * The shutdown save skips an index whose lock stays held, and still saves the others
+     */
+    @Test
+    public void testSaveAll_SkipsBusyIndex() throws Exception {
+        Path busyFile = tempDir.resolve("busy.txt");
+        Path idleFile = tempDir.resolve("idle.txt");
+        Files.write(busyFile, List.of("56s_d%&fAB|01-01-2024|3|false"));
+        Files.write(idleFile, List.of("57s_d%&fAB|01-01-2024|3|false"));
+        DemeritIndex busy = DemeritIndex.forFile(busyFile.toString());
+        DemeritIndex idle = DemeritIndex.forFile(idleFile.toString());
+        assertEquals(1, busy.countFor("56s_d%&fAB"));
+        assertEquals(1, idle.countFor("57s_d%&fAB"));
+
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            synchronized (busy) {
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        holder.start();
+        held.await();
+        try {
+            long start = System.nanoTime();
+            assertEquals(1, DemeritIndex.saveAll(List.of(busy, idle), 200));
+            assertTrue(System.nanoTime() - start < 5_000_000_000L);
+            assertTrue(Files.exists(tempDir.resolve("idle.txt.idx")));
+            assertFalse(Files.exists(tempDir.resolve("busy.txt.idx")));
+        } finally {
+            release.countDown();
+            holder.join();
+            // Leaves nothing for the skipped save thread to write while the directory is removed
+            busy.save();
+        }
+    }
+}
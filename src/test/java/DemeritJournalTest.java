@@ -0,0 +1,98 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for DemeritJournal (write-behind appends to the demerit points file)
+ */
+public class DemeritJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Appends from many threads in group commit mode are all written exactly once
+     */
+    @Test
+    public void testGroupCommit_AllAppendsWritten() throws Exception {
+        Path file = tempDir.resolve("demerit_points.txt");
+        DemeritJournal journal = DemeritJournal.forFile(file.toString());
+        journal.setDurability(Durability.GROUP_COMMIT);
+        journal.setGroupCommit(2, 32);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String line = "56s_d%&fAB|15-03-2024|" + i + "|false";
+            results.add(pool.submit(() -> {
+                journal.append(line);
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(200, lines.size());
+        assertEquals(200, new HashSet<>(lines).size());
+    }
+
+    /**
+     * A file deleted while the journal has it open is recreated on the next append
+     */
+    @Test
+    public void testFileDeleted_Reopened() throws Exception {
+        Path file = tempDir.resolve("demerit_points.txt");
+        DemeritJournal journal = DemeritJournal.forFile(file.toString());
+        journal.setDurability(Durability.FLUSH_PER_CALL);
+        journal.append("56s_d%&fAB|15-03-2024|3|false");
+
+        Files.delete(file);
+        journal.append("56s_d%&fAB|16-03-2024|2|false");
+
+        assertTrue(Files.exists(file));
+        assertEquals(List.of("56s_d%&fAB|16-03-2024|2|false"), Files.readAllLines(file));
+    }
+
+    /**
+     * A batch whose write throws an unchecked exception or an Error fails its callers
+     * instead of leaving them waiting, and later appends are still written
+     */
+    @Test
+    public void testGroupCommit_FailingWriteReleasesCallers() throws Exception {
+        Path file = tempDir.resolve("demerit_points.txt");
+        DemeritJournal journal = DemeritJournal.forFile(file.toString());
+        journal.setDurability(Durability.GROUP_COMMIT);
+        journal.setGroupCommit(1, 1);
+
+        journal.beforeWrite = lines -> {
+            throw new IllegalStateException("injected");
+        };
+        IOException failed = assertThrows(IOException.class, () -> journal.append("56s_d%&fAB|15-03-2024|3|false"));
+        assertTrue(failed.getMessage().contains("injected"));
+
+        journal.beforeWrite = lines -> {
+            throw new AssertionError("injected");
+        };
+        assertThrows(IOException.class, () -> journal.append("56s_d%&fAB|16-03-2024|2|false"));
+
+        journal.beforeWrite = lines -> { };
+        journal.append("56s_d%&fAB|17-03-2024|1|false");
+        assertEquals(List.of("56s_d%&fAB|17-03-2024|1|false"), Files.readAllLines(file));
+    }
+}
@@ -0,0 +1,98 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for IndexSnapshot (binary snapshots of the person index and demerit histories)
+ */
+public class IndexSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * A saved person snapshot is loaded by a new registry while the file is unchanged, and ignored once it changes
+     */
+    @Test
+    public void testPersonSnapshot_UsedUntilFileChanges() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, List.of(
+            "56s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false",
+            "57s_d%&fAB|Anna|Lee|10|High Street|Geelong|Victoria|Australia|01-01-1980|true"));
+        PersonRegistry registry = new PersonRegistry(file.toFile());
+        assertEquals(2, registry.size());
+        registry.saveSnapshot();
+
+        IndexSnapshot.Records records = IndexSnapshot.loadRecords(file);
+        assertNotNull(records);
+        assertEquals(2, records.lines.size());
+        PersonRegistry restarted = new PersonRegistry(file.toFile());
+        assertTrue(restarted.getRecord("57s_d%&fAB").endsWith("|true"));
+
+        Files.writeString(file, "58s_d%&fAB|Sam|Ng|5|Main Road|Ballarat|Victoria|Australia|02-02-1985|false\n", StandardOpenOption.APPEND);
+        assertNull(IndexSnapshot.loadRecords(file));
+        assertEquals(3, new PersonRegistry(file.toFile()).size());
+    }
+
+    /**
+     * Demerit histories from a snapshot are extended with appended offenses, and a rewritten file is parsed in full
+     */
+    @Test
+    public void testDemeritSnapshot_ParsesOnlyAppendedTail() throws IOException {
+        Path file = tempDir.resolve("demerit_points.txt");
+        Files.write(file, List.of("56s_d%&fAB|01-01-2024|3|false", "57s_d%&fAB|02-01-2024|2|false"));
+        SuspensionRecompute.loadHistories(file.toString());
+        assertNotNull(IndexSnapshot.loadHistories(file));
+
+        DemeritJournal.forFile(file.toString()).append("56s_d%&fAB|03-01-2024|4|false");
+        IndexSnapshot.Histories stale = IndexSnapshot.loadHistories(file);
+        assertEquals(1, stale.histories.get("56s_d%&fAB").size());
+        assertTrue(stale.coveredLength < Files.size(file));
+
+        Map<String, DemeritHistory> histories = SuspensionRecompute.loadHistories(file.toString());
+        assertEquals(7, histories.get("56s_d%&fAB").pointsInTwoYears(LocalDate.of(2024, 6, 1)));
+        assertEquals(Files.size(file), IndexSnapshot.loadHistories(file).coveredLength);
+
+        Files.write(file, List.of("57s_d%&fAB|05-01-2024|6|false"));
+        assertNull(IndexSnapshot.loadHistories(file));
+        histories = SuspensionRecompute.loadHistories(file.toString());
+        assertEquals(6, histories.get("57s_d%&fAB").totalPoints());
+        assertNull(histories.get("56s_d%&fAB"));
+    }
+
+    /**
+     * An edit in the middle of the demerit file that keeps its length is caught by the timestamp
+     */
+    @Test
+    public void testDemeritSnapshot_SameLengthEditDetected() throws IOException {
+        Path file = tempDir.resolve("demerit_points.txt");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 6000; i++) {
+            lines.add(String.format("5%04d&fAB|01-01-2024|2|false", i));
+        }
+        Files.write(file, lines);
+        SuspensionRecompute.loadHistories(file.toString());
+        assertNotNull(IndexSnapshot.loadHistories(file));
+
+        // Same length, changed between the fingerprinted first and last 64 KB, with a later timestamp
+        lines.set(3000, "53000&fAB|01-01-2024|5|false");
+        Files.write(file, lines);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(file.toFile().lastModified() + 2000));
+        assertNull(IndexSnapshot.loadHistories(file));
+        assertEquals(5, SuspensionRecompute.loadHistories(file.toString()).get("53000&fAB").totalPoints());
+    }
+}
@@ -0,0 +1,91 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for MappedRecordFile and RecordView
+ */
+public class MappedRecordFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * A file large enough to be split across threads comes back complete and in file order
+     */
+    @Test
+    public void testRecords_ParallelChunksKeepFileOrder() throws IOException {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            expected.add(String.format("%08d|12-03-2024|%d", i, i % 7));
+        }
+        Path file = tempDir.resolve("demerit_points.txt");
+        Files.write(file, expected, StandardCharsets.UTF_8);
+
+        MappedRecordFile mapped = MappedRecordFile.open(file);
+        assertTrue(mapped.length() > 4 * (1 << 16));
+        assertEquals(expected, mapped.lines());
+        assertEquals(expected.stream().map(line -> line.substring(0, 8)).collect(Collectors.toList()),
+            mapped.records().map(RecordView::firstField).collect(Collectors.toList()));
+    }
+
+    /**
+     * Empty lines are skipped, CRLF endings trimmed and a last line without a break is kept
+     */
+    @Test
+    public void testRecords_LineEndings() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, "a|1\r\n\n\nb|2\nc|3".getBytes(StandardCharsets.UTF_8));
+
+        MappedRecordFile mapped = MappedRecordFile.open(file);
+        assertEquals(List.of("a|1", "b|2", "c|3"), mapped.lines());
+        assertEquals(11, mapped.lastLineEnd(0, mapped.length()));
+        assertEquals(List.of("b|2"), mapped.records(7, 11).map(RecordView::line).collect(Collectors.toList()));
+    }
+
+    /**
+     * Fields are read in place, including numbers and dates
+     */
+    @Test
+    public void testRecordView_Fields() throws IOException {
+        Path file = tempDir.resolve("demerit_points.txt");
+        Files.write(file, List.of("56s_d%&fAB|29-02-2024|6|", "56s_d%&fAB|30-02-2024|x"), StandardCharsets.UTF_8);
+
+        List<RecordView> lines = MappedRecordFile.open(file).records().collect(Collectors.toList());
+        RecordView valid = lines.get(0);
+        assertEquals(4, valid.fieldCount());
+        assertEquals("56s_d%&fAB", valid.field(0));
+        assertEquals("", valid.field(3));
+        assertNull(valid.field(4));
+        assertEquals(LocalDate.of(2024, 2, 29), valid.dateField(1));
+        assertEquals(6, valid.intField(2));
+        assertThrows(NumberFormatException.class, () -> valid.intField(3));
+
+        RecordView invalid = lines.get(1);
+        assertThrows(DateTimeException.class, () -> invalid.dateField(1));
+        assertThrows(NumberFormatException.class, () -> invalid.intField(2));
+    }
+
+    /**
+     * Opening a missing file reports NoSuchFileException
+     */
+    @Test
+    public void testOpen_MissingFile() {
+        assertThrows(NoSuchFileException.class, () -> MappedRecordFile.open(tempDir.resolve("missing.txt")));
+    }
+}
@@ -0,0 +1,83 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for PersonBloomFilter and its use by PersonRegistry for negative lookups
+ */
+public class PersonBloomFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Added IDs are always found, and the false positive rate stays near the configured rate
+     */
+    @Test
+    public void testNoFalseNegatives_FalsePositiveRateNearTarget() {
+        PersonBloomFilter filter = new PersonBloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.add("present-" + i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(filter.mightContain("present-" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "False positives should be around 1%, got " + falsePositives);
+    }
+
+    /**
+     * A saved filter lets a new registry reject unknown IDs without loading the persons file,
+     * while known IDs still go to the index
+     */
+    @Test
+    public void testSavedFilter_MissAnsweredWithoutLoadingFile() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lines.add(String.format("33#$%04dAB|First|Last|1|High Street|Geelong|Victoria|Australia|01-01-1980|false", i));
+        }
+        Files.write(file, lines);
+        PersonRegistry first = new PersonRegistry(file.toFile());
+        assertTrue(first.contains("33#$0001AB"));
+        first.saveBloomFilter();
+        assertTrue(Files.exists(tempDir.resolve("persons.txt.bloom")));
+
+        PersonRegistry second = new PersonRegistry(file.toFile());
+        assertFalse(second.contains("99#$9999ZZ"));
+        assertFalse(second.isLoaded(), "A definite miss should not load the persons file");
+        assertTrue(second.contains("33#$0042AB"));
+        assertTrue(second.isLoaded());
+    }
+
+    /**
+     * A saved filter is ignored once the persons file has changed
+     */
+    @Test
+    public void testStaleFilter_Ignored() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, List.of("33#$0001AB|First|Last|1|High Street|Geelong|Victoria|Australia|01-01-1980|false"));
+        PersonRegistry first = new PersonRegistry(file.toFile());
+        first.reload();
+        first.saveBloomFilter();
+
+        Files.writeString(file, "44#$0002AB|First|Last|1|High Street|Geelong|Victoria|Australia|01-01-1980|false\n",
+            java.nio.file.StandardOpenOption.APPEND);
+
+        PersonRegistry second = new PersonRegistry(file.toFile());
+        assertTrue(second.contains("44#$0002AB"));
+    }
+}
@@ -0,0 +1,100 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for PersonCache (weight-bounded LRU cache of hydrated persons)
+ */
+public class PersonCacheTest {
+
+    // Person whose ID ends in its number of offenses, e.g. 56s_d%&fA3 has 3
+    private static Person load(String personID) {
+        if (personID.startsWith("missing")) {
+            return null;
+        }
+        Person person = Person.fromRecord(personID + "|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false");
+        int offenses = personID.charAt(personID.length() - 1) - '0';
+        for (int i = 0; i < offenses; i++) {
+            person.addOffense(LocalDate.of(2024, 1, 1).plusDays(i), 1);
+        }
+        return person;
+    }
+
+    /**
+     * Repeat lookups are hits, invalidated entries are loaded again, and callers get copies
+     */
+    @Test
+    public void testHitsMissesAndInvalidation() {
+        AtomicInteger loads = new AtomicInteger();
+        PersonCache cache = new PersonCache(100, id -> {
+            loads.incrementAndGet();
+            return load(id);
+        });
+
+        Person first = cache.get("56s_d%&fA2");
+        Person second = cache.get("56s_d%&fA2");
+        assertNotSame(first, second);
+        assertEquals(2, second.offenseCount());
+        assertEquals(1, loads.get());
+        assertNull(cache.get("missing"));
+
+        cache.invalidate("56s_d%&fA2");
+        cache.get("56s_d%&fA2");
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        assertEquals(3, cache.getWeight());
+    }
+
+    /**
+     * Least recently used persons are evicted once the offense-weighted total passes the limit
+     */
+    @Test
+    public void testEviction_ByWeightInLruOrder() {
+        PersonCache cache = new PersonCache(10, PersonCacheTest::load);
+        cache.get("56s_d%&fA3"); // weight 4
+        cache.get("57s_d%&fA3"); // weight 4
+        cache.get("56s_d%&fA3"); // now most recently used
+        cache.get("58s_d%&fA2"); // weight 3, total 11 -> evict 57
+
+        assertEquals(List.of("56s_d%&fA3", "58s_d%&fA2"), cache.keys());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(7, cache.getWeight());
+    }
+
+    // An ID that is not registered yet, so the test can run against an existing persons file
+    private static String unusedID() {
+        PersonShards registry = PersonShards.forFile(Person.personFile());
+        for (int i = 0; ; i++) {
+            String id = String.format("86!!%04dCA", i);
+            if (!registry.contains(id)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * The Person write paths invalidate the shared cache, so lookups after a write see it
+     */
+    @Test
+    public void testPersonWrites_InvalidateSharedCache() {
+        String id = unusedID();
+        String address = "7|Flinders Street|Melbourne|Victoria|Australia";
+        Person person = new Person(id, "Ada", "Lovelace", address, "10-12-1985");
+        assertTrue(person.addPerson(Person.personFile()));
+        assertEquals("Ada", Person.lookup(id).getFirstName());
+
+        assertTrue(person.updatePersonalDetails(id, id, "Augusta", "Lovelace", address, "10-12-1985"));
+        assertEquals("Augusta", Person.lookup(id).getFirstName());
+
+        assertEquals("Success", Person.lookup(id).addDemeritPoints("01-02-2026", 3));
+        assertEquals(1, Person.lookup(id).offenseCount());
+    }
+}
@@ -0,0 +1,87 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for concurrent addDemeritPoints / updatePersonalDetails calls
+ * (striped per-person locking and the thread-safe date parsing)
+ */
+public class PersonConcurrencyTest {
+
+    private static final String PERSON_FILE = "persons.txt";
+    private static final String DEMERIT_FILE = "demerit_points.txt";
+
+    /**
+     * Many threads adding offenses to the same person: every offense is recorded exactly once
+     */
+    @Test
+    public void testSamePersonFromManyThreads_AllOffensesRecorded() throws Exception {
+        Person person = new Person("93!!q001ZY", "Grace", "Hopper", "12|Swanston Street|Melbourne|Victoria|Australia", "09-12-1970");
+        assertTrue(person.addPerson(PERSON_FILE));
+        long linesBefore = countDemeritLines("93!!q001ZY");
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            String offenseDate = String.format("%02d-01-2024", i);
+            results.add(pool.submit(() -> person.addDemeritPoints(offenseDate, 1)));
+        }
+        for (Future<String> result : results) {
+            assertEquals("Success", result.get());
+        }
+        pool.shutdown();
+
+        assertEquals(20, person.getDemeritHistory().size());
+        assertEquals(20, countDemeritLines("93!!q001ZY") - linesBefore);
+        assertTrue(person.isSuspended(), "20 points within two years is over the 21+ threshold");
+    }
+
+    /**
+     * Different persons updated in parallel: each keeps its own details and nobody's update is lost
+     */
+    @Test
+    public void testDifferentPersonsInParallel_NoLostUpdates() throws Exception {
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            Person person = new Person(String.format("95!!q%03dZY", i), "First" + i, "Last", "1|Collins Street|Melbourne|Victoria|Australia", "01-01-1980");
+            assertTrue(person.addPerson(PERSON_FILE));
+            persons.add(person);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Person person : persons) {
+            results.add(pool.submit(() -> person.updatePersonalDetails(person.getPersonID(), person.getPersonID(),
+                "Renamed", "Last", person.getAddress(), person.getBirthdate())));
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        pool.shutdown();
+
+        List<String> lines = Files.readAllLines(Paths.get(PERSON_FILE));
+        for (Person person : persons) {
+            assertTrue(lines.contains(person.getPersonID() + "|Renamed|Last|1|Collins Street|Melbourne|Victoria|Australia|01-01-1980|false"),
+                "Update for " + person.getPersonID() + " should be in the file");
+        }
+    }
+
+    private long countDemeritLines(String personID) throws IOException {
+        if (!Files.exists(Paths.get(DEMERIT_FILE))) {
+            return 0;
+        }
+        return Files.readAllLines(Paths.get(DEMERIT_FILE)).stream()
+            .filter(line -> line.startsWith(personID + "|"))
+            .count();
+    }
+}
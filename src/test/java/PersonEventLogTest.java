@@ -0,0 +1,146 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for PersonEventLog (change events with backpressure and durable offsets)
+ */
+public class PersonEventLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Collects delivered events; requests nothing until told to
+     */
+    private static class Collector implements Flow.Subscriber<PersonEvent> {
+        final BlockingQueue<PersonEvent> events = new LinkedBlockingQueue<>();
+        volatile Flow.Subscription subscription;
+        volatile Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(PersonEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        PersonEvent next() throws InterruptedException {
+            return events.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Events are delivered in order and never ahead of demand
+     */
+    @Test
+    public void testDelivery_FollowsDemand() throws Exception {
+        PersonEventLog log = new PersonEventLog(tempDir.resolve("persons.txt.events"));
+        Collector collector = new Collector();
+        log.subscribe(collector);
+
+        log.publish(PersonEvent.Type.PERSON_ADDED, "56s_d%&fAB", "56s_d%&fAB", "56s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false");
+        log.publish(PersonEvent.Type.DEMERIT_ADDED, "56s_d%&fAB", "56s_d%&fAB", "01-01-2024|3");
+        log.publish(PersonEvent.Type.SUSPENSION_CHANGED, "56s_d%&fAB", "56s_d%&fAB", "true");
+
+        collector.subscription.request(1);
+        PersonEvent first = collector.next();
+        assertEquals(0, first.getOffset());
+        assertEquals(PersonEvent.Type.PERSON_ADDED, first.getType());
+        assertNull(collector.events.poll(200, TimeUnit.MILLISECONDS));
+
+        collector.subscription.request(2);
+        PersonEvent second = collector.next();
+        PersonEvent third = collector.next();
+        assertEquals("01-01-2024|3", second.getPayload());
+        assertEquals(2, third.getOffset());
+        assertTrue(third.isSuspended());
+        assertNull(collector.error);
+    }
+
+    /**
+     * A named subscriber resumes after its committed offset, also from a reopened log
+     */
+    @Test
+    public void testDurableSubscriber_ResumesAfterCommit() throws Exception {
+        Path file = tempDir.resolve("persons.txt.events");
+        PersonEventLog log = new PersonEventLog(file);
+        for (int i = 0; i < 4; i++) {
+            log.publish(PersonEvent.Type.DEMERIT_ADDED, "56s_d%&fAB", "56s_d%&fAB", "01-01-2024|" + (i + 1));
+        }
+
+        Collector collector = new Collector();
+        log.subscribe("audit", collector);
+        collector.subscription.request(2);
+        assertEquals(0, collector.next().getOffset());
+        assertEquals(1, collector.next().getOffset());
+        log.commit("audit", 1);
+        collector.subscription.cancel();
+
+        // A new process continues the offsets and the subscriber's position
+        PersonEventLog reopened = new PersonEventLog(file);
+        assertEquals(4, reopened.getNextOffset());
+        assertEquals(1, reopened.committedOffset("audit"));
+        Collector resumed = new Collector();
+        reopened.subscribe("audit", resumed);
+        resumed.subscription.request(Long.MAX_VALUE);
+        assertEquals(2, resumed.next().getOffset());
+        assertEquals(3, resumed.next().getOffset());
+        reopened.publish(PersonEvent.Type.SUSPENSION_CHANGED, "56s_d%&fAB", "56s_d%&fAB", "true");
+        assertEquals(4, resumed.next().getOffset());
+    }
+
+    /**
+     * Asking for zero events is a protocol error reported through onError
+     */
+    @Test
+    public void testNonPositiveRequest_SignalsError() throws IOException {
+        PersonEventLog log = new PersonEventLog(tempDir.resolve("persons.txt.events"));
+        Collector collector = new Collector();
+        log.subscribe(collector);
+        collector.subscription.request(0);
+        assertTrue(collector.error instanceof IllegalArgumentException);
+    }
+
+    /**
+     * Adding a person to a file with an event log publishes PERSON_ADDED
+     */
+    @Test
+    public void testAddPerson_PublishesEvent() throws Exception {
+        String personFile = tempDir.resolve("persons.txt").toString();
+        PersonEventLog log = PersonEventLog.forFile(personFile);
+        Collector collector = new Collector();
+        log.subscribe(collector);
+        collector.subscription.request(1);
+
+        Person person = new Person("56s_d%&fAB", "John", "Doe", "32|Highland Street|Melbourne|Victoria|Australia", "15-11-1990");
+        assertTrue(person.addPerson(personFile));
+
+        PersonEvent event = collector.next();
+        assertEquals(PersonEvent.Type.PERSON_ADDED, event.getType());
+        assertEquals("56s_d%&fAB", event.getPersonID());
+        assertTrue(event.getPayload().startsWith("56s_d%&fAB|John|Doe|"));
+    }
+}
@@ -0,0 +1,197 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for PersonHttpServer (HTTP front-end over the Person operations)
+ */
+public class PersonHttpServerTest {
+
+    private PersonHttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = new PersonHttpServer(new InetSocketAddress("127.0.0.1", 0), 16);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    // An ID that is not registered yet, so the test can run against an existing persons file
+    private static String unusedID() {
+        PersonRegistry registry = PersonRegistry.forFile(Person.personFile());
+        for (int i = 0; ; i++) {
+            String id = String.format("87!!%04dHT", i);
+            if (!registry.contains(id)) {
+                return id;
+            }
+        }
+    }
+
+    private HttpResponse<String> send(String method, String path, String form) throws IOException, InterruptedException {
+        return send(server, method, path, form);
+    }
+
+    private HttpResponse<String> send(PersonHttpServer target, String method, String path, String form) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + target.getPort() + path))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .timeout(Duration.ofSeconds(10))
+            .method(method, form == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(form))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Add, look up, update and add demerit points over HTTP
+     */
+    @Test
+    public void testPersonLifecycle() throws Exception {
+        String id = unusedID();
+        String path = "/persons/" + encode(id);
+        String form = "personID=" + encode(id) + "&firstName=Ada&lastName=Lovelace"
+            + "&address=" + encode("7|Flinders Street|Melbourne|Victoria|Australia") + "&birthdate=10-12-1985";
+
+        assertEquals(201, send("POST", "/persons", form).statusCode());
+        assertEquals(409, send("POST", "/persons", form).statusCode());
+
+        HttpResponse<String> lookup = send("GET", path, null);
+        assertEquals(200, lookup.statusCode());
+        assertTrue(lookup.body().contains("\"lastName\":\"Lovelace\""));
+
+        assertEquals(200, send("PUT", path, "firstName=Augusta").statusCode());
+        assertTrue(send("GET", path, null).body().contains("\"firstName\":\"Augusta\""));
+
+        HttpResponse<String> demerit = send("POST", path + "/demerits", "offenseDate=01-02-2024&points=3");
+        assertEquals(201, demerit.statusCode());
+        assertTrue(demerit.body().contains("\"isSuspended\":false"));
+        assertEquals(400, send("POST", path + "/demerits", "offenseDate=01-02-2024&points=9").statusCode());
+    }
+
+    /**
+     * Unknown persons and routes get 404, invalid input 400
+     */
+    @Test
+    public void testErrors() throws Exception {
+        assertEquals(404, send("GET", "/persons/" + encode(unusedID()), null).statusCode());
+        assertEquals(404, send("DELETE", "/persons/x", null).statusCode());
+        assertEquals(400, send("POST", "/persons", "personID=123&firstName=A&lastName=B&address=x&birthdate=1").statusCode());
+    }
+
+    /**
+     * Concurrent offenses for the same person each see the others, so the suspension they add up to is kept
+     */
+    @Test
+    public void testConcurrentDemerits_SuspensionNotLost() throws Exception {
+        String id = unusedID();
+        String path = "/persons/" + encode(id);
+        String form = "personID=" + encode(id) + "&firstName=Ada&lastName=Lovelace"
+            + "&address=" + encode("7|Flinders Street|Melbourne|Victoria|Australia") + "&birthdate=10-12-1985";
+        assertEquals(201, send("POST", "/persons", form).statusCode());
+
+        // 5 x 3 points on one day passes the adult limit of 12 only once all five are counted
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        List<Future<HttpResponse<String>>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(pool.submit(() -> send("POST", path + "/demerits", "offenseDate=01-05-2026&points=3")));
+        }
+        for (Future<HttpResponse<String>> result : results) {
+            assertEquals(201, result.get().statusCode());
+        }
+        pool.shutdown();
+
+        assertTrue(send("GET", path, null).body().contains("\"isSuspended\":true"));
+    }
+
+    /**
+     * Of several concurrent POSTs for the same new ID exactly one adds the person
+     */
+    @Test
+    public void testConcurrentAdd_OnlyOneCreated() throws Exception {
+        String id = unusedID();
+        String form = "personID=" + encode(id) + "&firstName=Ada&lastName=Lovelace"
+            + "&address=" + encode("7|Flinders Street|Melbourne|Victoria|Australia") + "&birthdate=10-12-1985";
+
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        List<Future<HttpResponse<String>>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(pool.submit(() -> send("POST", "/persons", form)));
+        }
+        int created = 0;
+        for (Future<HttpResponse<String>> result : results) {
+            int status = result.get().statusCode();
+            assertTrue(status == 201 || status == 409);
+            created += status == 201 ? 1 : 0;
+        }
+        pool.shutdown();
+
+        assertEquals(1, created);
+    }
+
+    /**
+     * Once the in-flight limit is reached further requests get 503 instead of waiting for a thread
+     */
+    @Test
+    public void testInFlightLimit_RejectsWhenSaturated() throws Exception {
+        String id = unusedID();
+        String path = "/persons/" + encode(id);
+        String form = "personID=" + encode(id) + "&firstName=Ada&lastName=Lovelace"
+            + "&address=" + encode("7|Flinders Street|Melbourne|Victoria|Australia") + "&birthdate=10-12-1985";
+        assertEquals(201, send("POST", "/persons", form).statusCode());
+
+        PersonHttpServer limited = new PersonHttpServer(new InetSocketAddress("127.0.0.1", 0), 1);
+        limited.start();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<HttpResponse<String>> blocked;
+            try (PersonLocks.Handle lock = PersonLocks.lock(id)) {
+                // The demerit request waits for the person's lock while holding the only permit
+                blocked = pool.submit(() -> send(limited, "POST", path + "/demerits", "offenseDate=01-02-2024&points=3"));
+                int status = 0;
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (System.nanoTime() < deadline && (status != 503 || blocked.isDone())) {
+                    if (blocked.isDone()) {
+                        // The lookup held the permit when the demerit request arrived; send it again
+                        blocked = pool.submit(() -> send(limited, "POST", path + "/demerits", "offenseDate=01-02-2024&points=3"));
+                    }
+                    status = send(limited, "GET", path, null).statusCode();
+                }
+                assertEquals(503, status);
+                assertFalse(blocked.isDone());
+            }
+            assertEquals(201, blocked.get(10, TimeUnit.SECONDS).statusCode());
+            assertEquals(200, send(limited, "GET", path, null).statusCode());
+        } finally {
+            limited.stop(0);
+            pool.shutdown();
+        }
+    }
+}
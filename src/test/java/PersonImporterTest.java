@@ -0,0 +1,97 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for the bulk import (Person.addPersons / PersonImporter)
+ */
+public class PersonImporterTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Valid new records are written, invalid and duplicate ones are reported and not written
+     */
+    @Test
+    public void testImport_ReportsEachRecord() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, List.of("22s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false"));
+
+        ImportReport report = Person.addPersons(file.toString(), Stream.of(
+            "23s_d%&fAB|Anna|Lee|10|High Street|Geelong|Victoria|Australia|01-01-1980",
+            "22s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990",
+            "12345|Bad|Id|10|High Street|Geelong|Victoria|Australia|01-01-1980",
+            "24s_d%&fAB|Sam|Ng|5|Main Road|Ballarat|Queensland|Australia|02-02-1985",
+            "23s_d%&fAB|Anna|Lee|10|High Street|Geelong|Victoria|Australia|01-01-1980"));
+
+        assertEquals(5, report.size());
+        assertEquals(ImportReport.Status.ACCEPTED, report.getEntries().get(0).getStatus());
+        assertEquals(ImportReport.Status.DUPLICATE_ID, report.getEntries().get(1).getStatus());
+        assertEquals(ImportReport.Status.INVALID, report.getEntries().get(2).getStatus());
+        assertEquals(ValidationResult.INVALID_ID, report.getEntries().get(2).getValidation());
+        assertEquals(ImportReport.Status.INVALID, report.getEntries().get(3).getStatus());
+        assertEquals(ValidationResult.INVALID_ADDRESS, report.getEntries().get(3).getValidation());
+        assertEquals(ImportReport.Status.DUPLICATE_ID, report.getEntries().get(4).getStatus());
+        assertEquals(1, report.getAccepted());
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertEquals("23s_d%&fAB|Anna|Lee|10|High Street|Geelong|Victoria|Australia|01-01-1980|false", lines.get(1));
+        assertTrue(PersonRegistry.forFile(file.toString()).contains("23s_d%&fAB"));
+    }
+
+    /**
+     * A large import from a file is written in full, in input order
+     */
+    @Test
+    public void testImportFile_ManyRecords() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Path source = tempDir.resolve("import.txt");
+        StringBuilder records = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            records.append(String.format("34%04d!!AB|First|Last|1|Main Street|Melbourne|Victoria|Australia|01-01-1990%n", i));
+        }
+        Files.writeString(source, records);
+
+        ImportReport report = Person.addPersons(file.toString(), source);
+
+        assertEquals(5000, report.getAccepted());
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(5000, lines.size());
+        assertTrue(lines.get(4999).startsWith("344999!!AB|"));
+    }
+
+    /**
+     * Imported persons are tracked by a loaded SuspensionTracker, as persons added one at a time are
+     */
+    @Test
+    public void testImport_TrackedBySuspensionTracker() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Path demerits = tempDir.resolve("demerit_points.txt");
+        Files.write(file, List.of());
+        Files.write(demerits, List.of());
+        Clock clock = Clock.fixed(LocalDate.of(2024, 6, 1).atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC);
+        SuspensionTracker tracker = SuspensionTracker.load(file.toString(), demerits.toString(), clock);
+
+        ImportReport report = Person.addPersons(file.toString(), Stream.of(
+            "25s_d%&fAB|Anna|Lee|10|High Street|Geelong|Victoria|Australia|01-01-2005"));
+        assertEquals(1, report.getAccepted());
+
+        // Under 21, so 7 points suspend; an untracked person would be ignored
+        tracker.offense("25s_d%&fAB", LocalDate.of(2024, 5, 1), 7);
+        assertEquals(Map.of("25s_d%&fAB", true), tracker.advance());
+    }
+}
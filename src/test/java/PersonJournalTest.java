@@ -0,0 +1,125 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for the JOURNALED storage mode (PersonJournal write-ahead journal with checkpoints)
+ */
+public class PersonJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Journaled changes leave the persons file alone and are recovered by a fresh registry
+     */
+    @Test
+    public void testJournaledChanges_RecoveredAfterRestart() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, List.of("56s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false"));
+        PersonRegistry registry = new PersonRegistry(file.toFile());
+        registry.setStorageMode(StorageMode.JOURNALED);
+
+        registry.append("57s_d%&fAB", "57s_d%&fAB|Anna|Lee|10|High Street|Geelong|Victoria|Australia|01-01-1980|false");
+        registry.update("56s_d%&fAB", "76s_d%&fAB", "76s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false");
+        registry.updateSuspensions(Map.of("57s_d%&fAB", true));
+
+        assertEquals(1, Files.readAllLines(file).size());
+        assertTrue(Files.size(tempDir.resolve("persons.txt.wal")) > 0);
+
+        // A process starting after a crash sees the same registry
+        PersonRegistry recovered = new PersonRegistry(file.toFile());
+        recovered.setStorageMode(StorageMode.JOURNALED);
+        assertFalse(recovered.contains("56s_d%&fAB"));
+        assertTrue(recovered.contains("76s_d%&fAB"));
+        assertTrue(recovered.getRecord("57s_d%&fAB").endsWith("|true"));
+    }
+
+    /**
+     * A checkpoint writes the records to the persons file and empties the journal
+     */
+    @Test
+    public void testCheckpoint_FoldsJournalIntoFile() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        PersonRegistry registry = new PersonRegistry(file.toFile());
+        registry.setStorageMode(StorageMode.JOURNALED);
+        registry.append("58s_d%&fAB", "58s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false");
+
+        registry.checkpoint();
+
+        assertEquals(List.of("58s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false"), Files.readAllLines(file));
+        assertFalse(Files.exists(tempDir.resolve("persons.txt.wal")));
+        assertFalse(Files.exists(tempDir.resolve("persons.txt.wal.old")));
+        assertTrue(registry.contains("58s_d%&fAB"));
+    }
+
+    /**
+     * A torn record at the end of the journal is ignored and cut off
+     */
+    @Test
+    public void testReplay_StopsAtTornRecord() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Path wal = tempDir.resolve("persons.txt.wal");
+        PersonRegistry registry = new PersonRegistry(file.toFile());
+        registry.setStorageMode(StorageMode.JOURNALED);
+        registry.append("59s_d%&fAB", "59s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false");
+        long intact = Files.size(wal);
+        Files.writeString(wal, "1234abcd|60s_d%&fAB|Half|Writ", StandardOpenOption.APPEND);
+
+        PersonRegistry recovered = new PersonRegistry(file.toFile());
+        recovered.setStorageMode(StorageMode.JOURNALED);
+
+        assertEquals(1, recovered.size());
+        assertFalse(recovered.contains("60s_d%&fAB"));
+        assertEquals(intact, Files.size(wal));
+    }
+
+    /**
+     * A journal left by a journaled run is folded into the file when the registry is not journaled
+     */
+    @Test
+    public void testLeftoverJournal_FoldedInRewriteMode() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        PersonRegistry registry = new PersonRegistry(file.toFile());
+        registry.setStorageMode(StorageMode.JOURNALED);
+        registry.append("61s_d%&fAB", "61s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false");
+
+        PersonRegistry rewrite = new PersonRegistry(file.toFile());
+        assertTrue(rewrite.contains("61s_d%&fAB"));
+
+        assertEquals(1, Files.readAllLines(file).size());
+        assertFalse(Files.exists(tempDir.resolve("persons.txt.wal")));
+    }
+
+    /**
+     * Leaving JOURNALED mode while a background checkpoint runs does not deadlock
+     */
+    @Test
+    public void testLeaveJournaled_DuringBackgroundCheckpoint() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            Path file = tempDir.resolve("persons-" + i + ".txt");
+            PersonRegistry registry = new PersonRegistry(file.toFile());
+            registry.setStorageMode(StorageMode.JOURNALED);
+            registry.setCheckpointRecords(1);
+            String line = "59s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false";
+
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                registry.append("59s_d%&fAB", line);
+                registry.setStorageMode(StorageMode.REWRITE);
+            });
+            assertEquals(List.of(line), Files.readAllLines(file));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for PersonMetrics, OperationMetrics and LatencyHistogram
+ */
+public class PersonMetricsTest {
+
+    /**
+     * Percentiles are reported within the histogram's bucket precision
+     */
+    @Test
+    public void testHistogram_Percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(10000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMax());
+        long p50 = histogram.getValueAtPercentile(50);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(Math.abs(p50 - 5_000_000) <= 5_000_000 * 0.04, "p50 was " + p50);
+        assertTrue(Math.abs(p99 - 9_900_000) <= 9_900_000 * 0.04, "p99 was " + p99);
+    }
+
+    /**
+     * A timed call is counted with its outcome, and I/O inside it is attributed to it
+     */
+    @Test
+    public void testSample_CountsCallFailureAndIo() {
+        OperationMetrics metrics = PersonMetrics.operation("testOperation");
+        long callsBefore = metrics.getCalls();
+        long failuresBefore = metrics.getFailures();
+
+        try (PersonMetrics.Sample sample = PersonMetrics.start("testOperation")) {
+            PersonMetrics.bytesRead(100);
+            PersonMetrics.bytesWritten(40);
+            PersonMetrics.linesScanned(3);
+            sample.completed(false);
+        }
+
+        assertEquals(callsBefore + 1, metrics.getCalls());
+        assertEquals(failuresBefore + 1, metrics.getFailures());
+        assertTrue(metrics.getBytesRead() >= 100);
+        assertTrue(metrics.getBytesWritten() >= 40);
+        assertTrue(metrics.getLinesScanned() >= 3);
+    }
+
+    /**
+     * Operations are visible through JMX
+     */
+    @Test
+    public void testOperation_RegisteredWithJmx() throws Exception {
+        PersonMetrics.operation("jmxOperation");
+        ObjectName name = new ObjectName("roadregistry:type=PersonOperation,name=" + ObjectName.quote("jmxOperation"));
+
+        assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        assertEquals(0L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Calls"));
+    }
+}
@@ -0,0 +1,102 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for PersonQuery and PersonView (streaming queries over the persons file)
+ */
+public class PersonQueryTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2024, 6, 1);
+
+    @TempDir
+    Path tempDir;
+
+    private PersonQuery query() throws IOException {
+        Path persons = tempDir.resolve("persons.txt");
+        Path demerits = tempDir.resolve("demerit_points.txt");
+        Files.write(persons, List.of(
+            "56s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|true",
+            "57s_d%&fAB|Anna|Lee|10|High Street|Geelong|Victoria|Australia|01-06-2004|false",
+            "58s_d%&fAB|Sam|Ng|5|Main Road|Ballarat|Victoria|Australia|02-06-2004|true"));
+        Files.write(demerits, List.of(
+            "56s_d%&fAB|01-01-2024|6|false",
+            "56s_d%&fAB|02-01-2024|6|false",
+            "56s_d%&fAB|03-01-2024|1|true",
+            "58s_d%&fAB|01-01-2021|6|false"));
+        return new PersonQuery(persons.toString(), demerits.toString());
+    }
+
+    private static List<String> ids(Stream<PersonView> views) {
+        try (views) {
+            return views.map(PersonView::getPersonID).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Filters combine, and the age boundaries follow birthdays exactly
+     */
+    @Test
+    public void testFilters_Combine() throws IOException {
+        assertEquals(List.of("56s_d%&fAB", "58s_d%&fAB"), ids(query().suspendedOnly().stream()));
+        // 57 turns 20 on the reference date, 58 is still 19
+        assertEquals(List.of("57s_d%&fAB"), ids(query().ageBetween(20, 30, AS_OF).stream()));
+        assertEquals(List.of("58s_d%&fAB"), ids(query().suspendedOnly().ageBetween(0, 19, AS_OF).stream()));
+        assertEquals(List.of("56s_d%&fAB"), ids(query().pointsOver(12, AS_OF).stream()));
+        assertEquals(List.of(), ids(query().pointsOver(13, AS_OF).stream()));
+    }
+
+    /**
+     * Views decode the fields of the stored line
+     */
+    @Test
+    public void testView_Fields() throws IOException {
+        try (Stream<PersonView> views = query().where(line -> line.startsWith("56")).stream()) {
+            PersonView view = views.findFirst().get();
+            assertEquals("Doe", view.getLastName());
+            assertEquals("32|Highland Street|Melbourne|Victoria|Australia", view.getAddress());
+            assertEquals("Melbourne", view.getSuburb());
+            assertEquals("15-11-1990", view.getBirthdate());
+            assertEquals(33, view.getAge(AS_OF));
+            assertEquals(true, view.isSuspended());
+        }
+    }
+
+    /**
+     * A file scanned in parallel chunks still reports its matches in file order and counts every line scanned
+     */
+    @Test
+    public void testStream_LargeFileKeepsOrder() throws IOException {
+        Path persons = tempDir.resolve("persons.txt");
+        List<String> lines = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            String id = String.format("56%04d!!AB", i);
+            boolean suspended = i % 3 == 0;
+            lines.add(id + "|First|Last|1|Main Street|Melbourne|Victoria|Australia|01-01-1990|" + suspended);
+            if (suspended) {
+                expected.add(id);
+            }
+        }
+        Files.write(persons, lines);
+        PersonQuery query = new PersonQuery(persons.toString(), tempDir.resolve("demerit_points.txt").toString());
+
+        OperationMetrics metrics = PersonMetrics.operation("testQuery");
+        long before = metrics.getLinesScanned();
+        try (PersonMetrics.Sample sample = PersonMetrics.start("testQuery")) {
+            assertEquals(expected, ids(query.suspendedOnly().stream()));
+        }
+        assertTrue(metrics.getLinesScanned() - before >= 20000);
+    }
+}
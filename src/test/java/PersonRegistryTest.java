@@ -0,0 +1,118 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for PersonRegistry (in-memory personID index over a persons file)
+ */
+public class PersonRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Records already in the file are found after the first load, and the latest line for an ID wins
+     */
+    @Test
+    public void testLoadsExistingFile_LatestLineWins() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, List.of(
+            "56s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false",
+            "56s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|true"));
+
+        PersonRegistry registry = PersonRegistry.forFile(file.toString());
+
+        assertTrue(registry.contains("56s_d%&fAB"));
+        assertFalse(registry.contains("78@#$%^ZAB"));
+        assertTrue(registry.getRecord("56s_d%&fAB").endsWith("|true"));
+        assertEquals(1, registry.size());
+    }
+
+    /**
+     * An ID change moves the record to the new key
+     */
+    @Test
+    public void testUpdate_IdChangeMovesRecord() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, List.of("57s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false"));
+        PersonRegistry registry = PersonRegistry.forFile(file.toString());
+        assertTrue(registry.contains("57s_d%&fAB"));
+
+        String updated = "77s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false";
+        assertTrue(registry.update("57s_d%&fAB", "77s_d%&fAB", updated));
+
+        assertFalse(registry.contains("57s_d%&fAB"));
+        assertEquals(updated, registry.getRecord("77s_d%&fAB"));
+        assertEquals(List.of(updated), Files.readAllLines(file));
+        assertFalse(registry.update("57s_d%&fAB", "57s_d%&fAB", updated));
+    }
+
+    /**
+     * A file deleted outside of Person is picked up on the next lookup
+     */
+    @Test
+    public void testExternalDelete_Reloads() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, List.of("58s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false"));
+        PersonRegistry registry = PersonRegistry.forFile(file.toString());
+        assertTrue(registry.contains("58s_d%&fAB"));
+
+        Files.delete(file);
+
+        assertFalse(registry.contains("58s_d%&fAB"));
+        assertNull(registry.getRecord("58s_d%&fAB"));
+    }
+
+    /**
+     * In APPEND_LOG mode updates are appended, the newest version is returned and an ID change
+     * survives a reload through its tombstone
+     */
+    @Test
+    public void testAppendVersion_NewestVersionWinsAfterReload() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, List.of("59s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false"));
+        PersonRegistry registry = PersonRegistry.forFile(file.toString());
+        registry.setStorageMode(StorageMode.APPEND_LOG);
+        registry.setCompactionRatio(0.9);
+
+        registry.appendVersion("59s_d%&fAB", "59s_d%&fAB", "59s_d%&fAB|Jane|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false");
+        registry.appendVersion("59s_d%&fAB", "79s_d%&fAB", "79s_d%&fAB|Jane|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false");
+
+        assertEquals(4, Files.readAllLines(file).size());
+        registry.reload();
+        assertFalse(registry.contains("59s_d%&fAB"));
+        assertTrue(registry.getRecord("79s_d%&fAB").startsWith("79s_d%&fAB|Jane|"));
+        assertEquals(0.75, registry.deadRatio(), 0.0001);
+    }
+
+    /**
+     * Compaction leaves only the live version of each record in the file
+     */
+    @Test
+    public void testCompact_KeepsOnlyLiveRecords() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, List.of(
+            "62s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false",
+            "63s_d%&fAB|Anna|Lee|10|High Street|Geelong|Victoria|Australia|01-01-1980|false",
+            "62s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|true",
+            "!63s_d%&fAB"));
+        PersonRegistry registry = PersonRegistry.forFile(file.toString());
+        registry.setStorageMode(StorageMode.APPEND_LOG);
+
+        registry.compact();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(List.of("62s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|true"), lines);
+        assertEquals(0.0, registry.deadRatio(), 0.0001);
+        assertFalse(registry.contains("63s_d%&fAB"));
+    }
+}
@@ -0,0 +1,59 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for the last name and suburb indexes (PersonSecondaryIndex via PersonRegistry)
+ */
+public class PersonSecondaryIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Exact and prefix lookups match case-insensitively
+     */
+    @Test
+    public void testFind_ExactAndPrefix() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, List.of(
+            "56s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false",
+            "57s_d%&fAB|Anna|Dodd|10|High Street|Geelong|Victoria|Australia|01-01-1980|false",
+            "58s_d%&fAB|Sam|Ng|5|Main Road|Melton|Victoria|Australia|02-02-1985|false"));
+        PersonRegistry registry = new PersonRegistry(file.toFile());
+
+        assertEquals(1, registry.findByLastName("doe", false).size());
+        assertEquals(2, registry.findByLastName("Do", true).size());
+        assertEquals(List.of("56s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false"),
+            registry.findBySuburb("MELBOURNE", false));
+        assertEquals(2, registry.findBySuburb("Mel", true).size());
+        assertTrue(registry.findBySuburb("Ballarat", false).isEmpty());
+    }
+
+    /**
+     * Adds, detail changes and ID changes keep the indexes current
+     */
+    @Test
+    public void testWrites_KeepIndexesCurrent() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, List.of("59s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false"));
+        PersonRegistry registry = new PersonRegistry(file.toFile());
+        assertEquals(1, registry.findBySuburb("Melbourne", false).size());
+
+        registry.append("60s_d%&fAB", "60s_d%&fAB|Anna|Doe|10|High Street|Geelong|Victoria|Australia|01-01-1980|false");
+        registry.update("59s_d%&fAB", "79s_d%&fAB", "79s_d%&fAB|John|Smith|32|Highland Street|Geelong|Victoria|Australia|15-11-1990|false");
+
+        assertTrue(registry.findBySuburb("Melbourne", false).isEmpty());
+        assertEquals(2, registry.findBySuburb("Geelong", false).size());
+        assertEquals(List.of("60s_d%&fAB|Anna|Doe|10|High Street|Geelong|Victoria|Australia|01-01-1980|false"),
+            registry.findByLastName("Doe", false));
+        assertTrue(registry.findByLastName("Smith", false).get(0).startsWith("79s_d%&fAB|"));
+    }
+}
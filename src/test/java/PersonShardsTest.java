@@ -0,0 +1,135 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for PersonShards (persons split across files by ID hash)
+ */
+public class PersonShardsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<String> records(int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String id = String.format("56%04d&fAB", i);
+            lines.add(id + "|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false");
+        }
+        return lines;
+    }
+
+    /**
+     * Resharding moves every record to the shard of its ID, and back into the plain file with 1 shard
+     */
+    @Test
+    public void testReshard_KeepsEveryRecord() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        List<String> lines = records(200);
+        Files.write(file, lines);
+
+        PersonShards shards = PersonShards.reshard(file.toString(), 4);
+        assertEquals(4, shards.count());
+        assertEquals(200, shards.size());
+        assertEquals(0, Files.size(file));
+        for (int shard = 0; shard < 4; shard++) {
+            for (String line : Files.readAllLines(Path.of(shards.files().get(shard)))) {
+                assertEquals(shard, PersonShards.shardOf(PersonRegistry.idOf(line), 4));
+            }
+        }
+
+        shards = PersonShards.reshard(file.toString(), 3);
+        assertEquals(200, shards.size());
+        assertFalse(Files.exists(tempDir.resolve("persons.txt.shard-0-of-4")));
+
+        shards = PersonShards.reshard(file.toString(), 1);
+        assertEquals(List.of(file.toAbsolutePath().toString()), shards.files());
+        assertEquals(new HashSet<>(lines), new HashSet<>(Files.readAllLines(file)));
+        assertFalse(Files.exists(tempDir.resolve("persons.txt.shards")));
+    }
+
+    /**
+     * Updates that change the ID move the record between shards; bulk writes are split per shard
+     */
+    @Test
+    public void testWrites_RoutedToShards() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, List.of());
+        PersonShards shards = PersonShards.reshard(file.toString(), 4);
+
+        boolean[] written = shards.appendAllNew(records(50));
+        for (boolean added : written) {
+            assertTrue(added);
+        }
+        assertFalse(shards.appendAllNew(records(1))[0]);
+
+        String oldID = "560000&fAB";
+        String newID = "57abcd&fAB";
+        String line = newID + "|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false";
+        assertTrue(shards.update(oldID, newID, line));
+        assertFalse(shards.contains(oldID));
+        assertEquals(line, shards.registryFor(newID).getRecord(newID));
+        assertEquals(50, shards.size());
+
+        assertEquals(2, shards.updateSuspensions(Map.of(newID, true, "560001&fAB", true, "missing&AB", true)));
+        assertTrue(shards.getRecord("560001&fAB").endsWith("|true"));
+    }
+
+    /**
+     * Resharding keeps the storage mode of the shards
+     */
+    @Test
+    public void testReshard_KeepsStorageMode() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, records(20));
+        PersonShards shards = PersonShards.reshard(file.toString(), 2);
+        shards.setStorageMode(StorageMode.JOURNALED);
+
+        shards = PersonShards.reshard(file.toString(), 3);
+        for (String shardFile : shards.files()) {
+            assertEquals(StorageMode.JOURNALED, PersonRegistry.forFile(shardFile).getStorageMode());
+        }
+        assertEquals(20, shards.size());
+    }
+
+    /**
+     * A cross-shard ID change whose removal from the old shard fails takes back the record it appended
+     */
+    @Test
+    public void testUpdate_FailedRemovalRollsBack() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, records(10));
+        PersonShards shards = PersonShards.reshard(file.toString(), 2);
+
+        String oldID = "560000&fAB";
+        String newID = "57abcd&fAB";
+        if (PersonShards.shardOf(oldID, 2) == PersonShards.shardOf(newID, 2)) {
+            newID = "57abce&fAB";
+        }
+        assertTrue(PersonShards.shardOf(oldID, 2) != PersonShards.shardOf(newID, 2));
+
+        // A directory in place of the old shard's journal makes the removal fail
+        PersonRegistry from = shards.registryFor(oldID);
+        from.setStorageMode(StorageMode.JOURNALED);
+        Files.createDirectory(Path.of(shards.files().get(PersonShards.shardOf(oldID, 2)) + ".wal"));
+
+        String line = newID + "|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false";
+        String target = newID;
+        assertThrows(IOException.class, () -> shards.update(oldID, target, line));
+        assertTrue(shards.contains(oldID));
+        assertFalse(shards.contains(newID));
+        assertEquals(10, shards.size());
+    }
+}
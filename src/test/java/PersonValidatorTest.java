@@ -0,0 +1,62 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for PersonValidator (allocation-free field and record validation)
+ */
+public class PersonValidatorTest {
+
+    /**
+     * Person ID rules: length, leading digits 2-9, two special characters, trailing uppercase letters
+     */
+    @Test
+    public void testValidateID() {
+        assertEquals(ValidationResult.VALID, PersonValidator.validateID("56s_d%&fAB"));
+        assertEquals(ValidationResult.INVALID_ID, PersonValidator.validateID("56s_d%&fA"));     // 9 characters
+        assertEquals(ValidationResult.INVALID_ID, PersonValidator.validateID("16s_d%&fAB"));    // first digit 1
+        assertEquals(ValidationResult.INVALID_ID, PersonValidator.validateID("56sadf&fAB"));    // one special character
+        assertEquals(ValidationResult.INVALID_ID, PersonValidator.validateID("56s_d%&fAb"));    // lowercase ending
+        assertEquals(ValidationResult.INVALID_ID, PersonValidator.validateID(null));
+    }
+
+    /**
+     * Address must have five non-empty fields, a numeric street number and the state Victoria
+     */
+    @Test
+    public void testValidateAddress() {
+        assertEquals(ValidationResult.VALID, PersonValidator.validateAddress("32|Highland Street|Melbourne|Victoria|Australia"));
+        assertEquals(ValidationResult.INVALID_ADDRESS, PersonValidator.validateAddress("32|Highland Street|Sydney|NSW|Australia"));
+        assertEquals(ValidationResult.INVALID_ADDRESS, PersonValidator.validateAddress("3A|Highland Street|Melbourne|Victoria|Australia"));
+        assertEquals(ValidationResult.INVALID_ADDRESS, PersonValidator.validateAddress("32||Melbourne|Victoria|Australia"));
+        assertEquals(ValidationResult.INVALID_ADDRESS, PersonValidator.validateAddress("32|Highland Street|Melbourne|Victoria"));
+        assertEquals(ValidationResult.INVALID_ADDRESS, PersonValidator.validateAddress("32|Highland Street|Melbourne|Victoria|Australia|Extra"));
+        assertEquals(ValidationResult.INVALID_ADDRESS, PersonValidator.validateAddress("Just an address with no format"));
+    }
+
+    /**
+     * Birthdate must be DD-MM-YYYY, 1900-2025 and a real calendar date
+     */
+    @Test
+    public void testValidateBirthdate() {
+        assertEquals(ValidationResult.VALID, PersonValidator.validateBirthdate("29-02-2000"));
+        assertEquals(ValidationResult.INVALID_BIRTHDATE_FORMAT, PersonValidator.validateBirthdate("1990-11-15"));
+        assertEquals(ValidationResult.INVALID_BIRTH_YEAR, PersonValidator.validateBirthdate("15-11-1899"));
+        assertEquals(ValidationResult.INVALID_BIRTH_MONTH, PersonValidator.validateBirthdate("15-13-1990"));
+        assertEquals(ValidationResult.INVALID_BIRTH_DAY, PersonValidator.validateBirthdate("29-02-1900"));
+        assertEquals(ValidationResult.INVALID_BIRTH_DAY, PersonValidator.validateBirthdate("31-04-1990"));
+    }
+
+    /**
+     * Whole record lines are validated field by field, with or without the suspension field
+     */
+    @Test
+    public void testValidateRecord() {
+        assertEquals(ValidationResult.VALID, PersonValidator.validateRecord("56s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false"));
+        assertEquals(ValidationResult.VALID, PersonValidator.validateRecord("56s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990"));
+        assertEquals(ValidationResult.INVALID_NAME, PersonValidator.validateRecord("56s_d%&fAB||Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990"));
+        assertEquals(ValidationResult.INVALID_ADDRESS, PersonValidator.validateRecord("56s_d%&fAB|John|Doe|32|Highland Street|Melbourne|NSW|Australia|15-11-1990"));
+        assertEquals(ValidationResult.INVALID_RECORD, PersonValidator.validateRecord("56s_d%&fAB|John|Doe|15-11-1990"));
+        assertEquals(ValidationResult.INVALID_RECORD, PersonValidator.validateRecord("56s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|maybe"));
+    }
+}
@@ -0,0 +1,130 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for RegistryVersion (committed versions of a PersonRegistry read without locking)
+ */
+public class RegistryVersionTest {
+    private static final String JOHN = "56s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|false";
+    private static final String ANNA = "57s_d%&fAB|Anna|Lee|10|High Street|Geelong|Victoria|Australia|01-01-1980|false";
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * A pinned version keeps answering as of its commit, and is released once unpinned
+     */
+    @Test
+    public void testPinnedVersion_UnaffectedByLaterWrites() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, List.of(JOHN));
+        PersonRegistry registry = new PersonRegistry(file.toFile());
+
+        RegistryVersion pinned = registry.pin();
+        registry.append("57s_d%&fAB", ANNA);
+        registry.update("56s_d%&fAB", "76s_d%&fAB", JOHN.replace("56s_d", "76s_d"));
+
+        assertTrue(pinned.contains("56s_d%&fAB"));
+        assertNull(pinned.getRecord("57s_d%&fAB"));
+        assertEquals(1, pinned.records().size());
+        assertTrue(registry.contains("76s_d%&fAB"));
+        assertFalse(registry.contains("56s_d%&fAB"));
+        assertEquals(2, registry.size());
+        try (RegistryVersion latest = registry.pin()) {
+            assertTrue(latest.getNumber() > pinned.getNumber());
+        }
+
+        assertEquals(1, registry.getRetainedVersions());
+        pinned.close();
+        pinned.close();
+        assertEquals(0, registry.getRetainedVersions());
+    }
+
+    /**
+     * Lookups are answered while another thread holds the registry lock for a write
+     */
+    @Test
+    public void testReads_DoNotWaitForWriters() throws Exception {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, List.of(JOHN));
+        PersonRegistry registry = new PersonRegistry(file.toFile());
+        registry.size();
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            synchronized (registry) {
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        writer.start();
+        locked.await();
+        try {
+            CompletableFuture<Boolean> read = CompletableFuture.supplyAsync(() -> registry.contains("56s_d%&fAB"));
+            assertTrue(read.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            writer.join();
+        }
+    }
+
+    /**
+     * Closing one pin twice does not release another pin of the same version
+     */
+    @Test
+    public void testClose_Idempotent() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, List.of(JOHN));
+        PersonRegistry registry = new PersonRegistry(file.toFile());
+
+        RegistryVersion first = registry.pin();
+        RegistryVersion second = registry.pin();
+        registry.append("57s_d%&fAB", ANNA);
+
+        first.close();
+        first.close();
+        assertEquals(1, registry.getRetainedVersions());
+        assertFalse(second.contains("57s_d%&fAB"));
+        second.close();
+        assertEquals(0, registry.getRetainedVersions());
+    }
+
+    /**
+     * A write that fails does not keep readers on the old version once the file changes
+     */
+    @Test
+    public void testFailedWrite_ReadersSeeFileChanges() throws IOException {
+        Path file = tempDir.resolve("persons.txt");
+        Files.write(file, List.of(JOHN));
+        PersonRegistry registry = new PersonRegistry(file.toFile());
+        registry.size();
+
+        // A directory in place of the file makes the append fail
+        Files.delete(file);
+        Files.createDirectory(file);
+        assertThrows(IOException.class, () -> registry.append("57s_d%&fAB", ANNA));
+
+        Files.delete(file);
+        Files.write(file, List.of(JOHN, ANNA));
+        assertTrue(registry.contains("57s_d%&fAB"));
+    }
+}
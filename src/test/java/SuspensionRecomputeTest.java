@@ -0,0 +1,115 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for SuspensionRecompute (bulk suspension re-evaluation)
+ */
+public class SuspensionRecomputeTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Suspensions are set and lifted as of the given date, and only changed records are rewritten
+     */
+    @Test
+    public void testRecompute_SetsAndLiftsSuspensions() throws IOException {
+        Path persons = tempDir.resolve("persons.txt");
+        Path demerits = tempDir.resolve("demerit_points.txt");
+        Files.write(persons, List.of(
+            "22#$0001AB|Young|Driver|1|High Street|Geelong|Victoria|Australia|01-01-2006|false",   // 18, 7 points -> suspend
+            "33#$0002AB|Old|Offender|2|High Street|Geelong|Victoria|Australia|01-01-1980|true",    // points aged out -> lift
+            "44#$0003AB|Clean|Record|3|High Street|Geelong|Victoria|Australia|01-01-1990|false"));  // unchanged
+        Files.write(demerits, List.of(
+            "22#$0001AB|10-01-2024|4|false",
+            "22#$0001AB|15-02-2024|3|false",
+            "33#$0002AB|01-01-2020|6|false",
+            "33#$0002AB|01-02-2020|6|false",
+            "33#$0002AB|01-03-2020|6|true"));
+
+        int changed = new SuspensionRecompute().recompute(persons.toString(), demerits.toString(), LocalDate.of(2024, 6, 1));
+
+        assertEquals(2, changed);
+        List<String> lines = Files.readAllLines(persons);
+        assertTrue(lines.get(0).endsWith("|true"));
+        assertTrue(lines.get(1).endsWith("|false"));
+        assertTrue(lines.get(2).endsWith("|false"));
+    }
+
+    /**
+     * Registries large enough to be split across several fork-join tasks give the same result
+     */
+    @Test
+    public void testRecompute_ManyPersonsAcrossTasks() throws IOException {
+        Path persons = tempDir.resolve("persons.txt");
+        Path demerits = tempDir.resolve("demerit_points.txt");
+        List<String> personLines = new ArrayList<>();
+        List<String> demeritLines = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            String id = String.format("55#$%04dCD", i);
+            personLines.add(id + "|First|Last|1|High Street|Geelong|Victoria|Australia|01-01-1980|false");
+            if (i % 2 == 0) {
+                demeritLines.add(id + "|01-03-2024|6|false");
+                demeritLines.add(id + "|02-03-2024|6|false");
+                demeritLines.add(id + "|03-03-2024|1|false");
+            }
+        }
+        Files.write(persons, personLines);
+        Files.write(demerits, demeritLines);
+
+        int changed = new SuspensionRecompute().recompute(persons.toString(), demerits.toString(), LocalDate.of(2024, 6, 1));
+
+        assertEquals(5000, changed);
+        assertEquals(5000, Files.readAllLines(persons).stream().filter(line -> line.endsWith("|true")).count());
+    }
+
+    /**
+     * An offense recorded after the histories were read, but before the flags are written,
+     * keeps the recompute from lifting the suspension it justifies
+     */
+    @Test
+    public void testRecompute_RechecksUnderPersonLock() throws Exception {
+        Path persons = tempDir.resolve("persons.txt");
+        Path demerits = tempDir.resolve("demerit_points.txt");
+        String id = "66#$0001AB";
+        Files.write(persons, List.of(id + "|Late|Offender|1|High Street|Geelong|Victoria|Australia|01-01-1980|true"));
+        Files.write(demerits, List.of("77#$0002AB|01-03-2024|1|false"));
+
+        AtomicInteger changed = new AtomicInteger(-1);
+        Thread recompute;
+        try (PersonLocks.Handle lock = PersonLocks.lock(id)) {
+            recompute = new Thread(() -> {
+                try {
+                    changed.set(new SuspensionRecompute().recompute(persons.toString(), demerits.toString(), LocalDate.of(2024, 6, 1)));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            recompute.start();
+            // Waits for the person lock once it has decided to lift the suspension
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (recompute.getState() != Thread.State.WAITING && recompute.isAlive() && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            Files.write(demerits, List.of(id + "|01-03-2024|6|false", id + "|02-03-2024|6|false", id + "|03-03-2024|1|false"),
+                StandardOpenOption.APPEND);
+        }
+        recompute.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertEquals(0, changed.get());
+        assertTrue(Files.readAllLines(persons).get(0).endsWith("|true"));
+    }
+}
@@ -0,0 +1,133 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for SuspensionTracker (incremental suspension status with point expiry and age thresholds)
+ */
+public class SuspensionTrackerTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Clock whose date the test moves forward
+     */
+    private static class TestClock extends Clock {
+        private LocalDate date;
+
+        TestClock(LocalDate date) {
+            this.date = date;
+        }
+
+        void set(LocalDate date) {
+            this.date = date;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return date.atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+    }
+
+    /**
+     * Points of a 29 February offense expire on the same day DemeritHistory stops counting them
+     */
+    @Test
+    public void testExpiry_MatchesTwoYearWindowForLeapDay() {
+        LocalDate leapDay = LocalDate.of(2024, 2, 29);
+        long expires = SuspensionTracker.expiryDay(leapDay);
+        assertEquals(LocalDate.of(2026, 3, 1).toEpochDay(), expires);
+
+        DemeritHistory history = new DemeritHistory();
+        history.add(leapDay, 6);
+        assertEquals(6, history.pointsInTwoYears(LocalDate.ofEpochDay(expires - 1)));
+        assertEquals(0, history.pointsInTwoYears(LocalDate.ofEpochDay(expires)));
+        assertEquals(LocalDate.of(2025, 6, 1).toEpochDay(), SuspensionTracker.expiryDay(LocalDate.of(2023, 6, 1)));
+    }
+
+    /**
+     * A suspension is lifted on the day the points that caused it leave the two-year window
+     */
+    @Test
+    public void testSuspension_LiftedWhenPointsExpire() {
+        TestClock clock = new TestClock(LocalDate.of(2024, 1, 1));
+        SuspensionTracker tracker = new SuspensionTracker(clock);
+        tracker.track("56s_d%&fAB", LocalDate.of(1990, 11, 15), false);
+
+        tracker.offense("56s_d%&fAB", LocalDate.of(2023, 6, 1), 6);
+        tracker.offense("56s_d%&fAB", LocalDate.of(2023, 12, 1), 6);
+        tracker.offense("56s_d%&fAB", LocalDate.of(2024, 1, 1), 1);
+        assertEquals(Map.of("56s_d%&fAB", true), tracker.advance());
+        assertEquals(13, tracker.windowPoints("56s_d%&fAB"));
+
+        clock.set(LocalDate.of(2025, 5, 31));
+        assertTrue(tracker.advance().isEmpty());
+
+        clock.set(LocalDate.of(2025, 6, 1));
+        assertEquals(Map.of("56s_d%&fAB", false), tracker.advance());
+        assertEquals(7, tracker.windowPoints("56s_d%&fAB"));
+        assertFalse(tracker.isSuspended("56s_d%&fAB"));
+    }
+
+    /**
+     * On the 21st birthday the threshold rises from 6 to 12 points
+     */
+    @Test
+    public void testTwentyFirstBirthday_RaisesThreshold() {
+        TestClock clock = new TestClock(LocalDate.of(2024, 3, 1));
+        SuspensionTracker tracker = new SuspensionTracker(clock);
+        tracker.track("57s_d%&fAB", LocalDate.of(2003, 9, 10), false);
+        tracker.offense("57s_d%&fAB", LocalDate.of(2024, 2, 1), 4);
+        tracker.offense("57s_d%&fAB", LocalDate.of(2024, 3, 1), 4);
+        assertEquals(Map.of("57s_d%&fAB", true), tracker.advance());
+
+        clock.set(LocalDate.of(2024, 9, 9));
+        assertTrue(tracker.advance().isEmpty());
+        clock.set(LocalDate.of(2024, 9, 10));
+        assertEquals(Map.of("57s_d%&fAB", false), tracker.advance());
+    }
+
+    /**
+     * A tracker loaded from the files writes the expired suspension back to the persons file
+     */
+    @Test
+    public void testLoadAndApply_UpdatesPersonsFile() throws IOException {
+        Path persons = tempDir.resolve("persons.txt");
+        Path demerits = tempDir.resolve("demerit_points.txt");
+        Files.write(persons, List.of("56s_d%&fAB|John|Doe|32|Highland Street|Melbourne|Victoria|Australia|15-11-1990|true"));
+        Files.write(demerits, List.of("56s_d%&fAB|01-06-2023|6|false", "56s_d%&fAB|01-12-2023|6|false", "56s_d%&fAB|01-01-2024|1|true"));
+
+        TestClock clock = new TestClock(LocalDate.of(2024, 1, 1));
+        SuspensionTracker tracker = SuspensionTracker.load(persons.toString(), demerits.toString(), clock);
+        assertEquals(0, tracker.apply(persons.toString()));
+
+        clock.set(LocalDate.of(2026, 1, 1));
+        assertEquals(1, tracker.apply(persons.toString()));
+        assertTrue(PersonRegistry.forFile(persons.toString()).getRecord("56s_d%&fAB").endsWith("|false"));
+    }
+}
@@ -0,0 +1,54 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for TimerWheel
+ */
+public class TimerWheelTest {
+
+    /**
+     * Timers at every level fire exactly on their day, in day order
+     */
+    @Test
+    public void testTimers_FireOnTheirDay() {
+        TimerWheel<Long> wheel = new TimerWheel<>(19000);
+        Random random = new Random(42);
+        List<Long> days = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long day = 19000 + random.nextInt(300000);
+            days.add(day);
+            wheel.schedule(day, day);
+        }
+        days.sort(null);
+
+        List<Long> fired = new ArrayList<>();
+        for (long today = 19000; today <= 19000 + 300000; today += 1 + random.nextInt(400)) {
+            long now = today;
+            wheel.advance(today, day -> {
+                assertTrue(day <= now);
+                fired.add(day);
+            });
+        }
+        wheel.advance(19000 + 300000, fired::add);
+        assertEquals(days, fired);
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * Timers for today or earlier fire on the next advance
+     */
+    @Test
+    public void testPastTimer_FiresOnNextAdvance() {
+        TimerWheel<String> wheel = new TimerWheel<>(100);
+        wheel.schedule(90, "late");
+        List<String> fired = new ArrayList<>();
+        wheel.advance(100, fired::add);
+        assertEquals(List.of("late"), fired);
+    }
+}